@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,7 +25,9 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.handler.timeout.IdleStateHandler;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.BackpressureManager;
 import org.traccar.handler.network.AcknowledgementHandler;
+import org.traccar.handler.network.BackpressureHandler;
 import org.traccar.handler.network.MainEventHandler;
 import org.traccar.handler.network.NetworkForwarderHandler;
 import org.traccar.handler.network.NetworkMessageHandler;
@@ -91,6 +93,10 @@ public abstract class BasePipelineFactory extends ChannelInitializer<Channel> {
             pipeline.addLast(new IdleStateHandler(timeout, 0, 0));
         }
         pipeline.addLast(new OpenChannelHandler(connector));
+        BackpressureManager backpressureManager = injector.getInstance(BackpressureManager.class);
+        if (backpressureManager != null) {
+            pipeline.addLast(new BackpressureHandler(backpressureManager, connector.isDatagram()));
+        }
         if (config.hasKey(Keys.SERVER_FORWARD)) {
             int port = config.getInteger(Keys.PROTOCOL_PORT.withPrefix(protocol));
             pipeline.addLast(injectMembers(new NetworkForwarderHandler(port)));
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.MetricsManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for blocking processing stages. Platform threads are named daemon threads with a bounded queue; when the
+ * queue is full the task runs on the submitting event loop, which slows down reading from the network. The number of
+ * queued and running tasks is reported as a metric and included in the admission control load.
+ */
+public class BlockingExecutor implements LifecycleObject, Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ExecutorService executor;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public BlockingExecutor(Config config, MetricsManager metricsManager) {
+        executor = createExecutor(config);
+        metricsManager.gauge("traccar_blocking_pending", "Tasks queued or running on the blocking executor",
+                pending::get);
+    }
+
+    private static ExecutorService createExecutor(Config config) {
+        int threads = config.getInteger(Keys.SERVER_BLOCKING_THREADS);
+        if ("virtual".equals(config.getString(Keys.SERVER_BLOCKING_EXECUTOR))) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not supported, using platform threads");
+            }
+        }
+        return new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getInteger(Keys.SERVER_BLOCKING_QUEUE)),
+                new DefaultThreadFactory("blocking", true), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOGGER.warn("Blocking executor did not finish {} tasks", pending.get());
+        }
+    }
+
+}
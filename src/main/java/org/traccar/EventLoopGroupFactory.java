@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,28 +16,112 @@
 package org.traccar;
 
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
 import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringDatagramChannel;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
 @Singleton
 public class EventLoopGroupFactory {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoopGroupFactory.class);
+
+    public enum Transport {
+        NIO, EPOLL, IO_URING
+    }
+
+    private final Transport transport;
     private final EventLoopGroup bossGroup;
     private final EventLoopGroup workerGroup;
 
     @Inject
     public EventLoopGroupFactory(Config config) {
-        var ioHandlerFactory = NioIoHandler.newFactory();
+        transport = selectTransport(config.getString(Keys.SERVER_NETTY_TRANSPORT));
+        LOGGER.info("Using {} network transport", transport.name().toLowerCase());
+        IoHandlerFactory ioHandlerFactory = switch (transport) {
+            case EPOLL -> EpollIoHandler.newFactory();
+            case IO_URING -> IoUringIoHandler.newFactory();
+            default -> NioIoHandler.newFactory();
+        };
         bossGroup = new MultiThreadIoEventLoopGroup(
                 config.getInteger(Keys.SERVER_NETTY_BOSS_THREADS), ioHandlerFactory);
         workerGroup = new MultiThreadIoEventLoopGroup(
                 config.getInteger(Keys.SERVER_NETTY_WORKER_THREADS), ioHandlerFactory);
     }
 
+    static Transport selectTransport(String value) {
+        if (value == null || value.equals("nio")) {
+            return Transport.NIO;
+        }
+        boolean auto = value.equals("auto");
+        if ((auto || value.equals("io_uring")) && IoUring.isAvailable()) {
+            return Transport.IO_URING;
+        }
+        if ((auto || value.equals("epoll") || value.equals("io_uring")) && Epoll.isAvailable()) {
+            return Transport.EPOLL;
+        }
+        if (!auto) {
+            LOGGER.warn("Transport {} is not available, falling back to nio", value);
+        }
+        return Transport.NIO;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Native transports support binding multiple datagram channels to the same port with SO_REUSEPORT.
+     */
+    public boolean isReusePortSupported() {
+        return transport != Transport.NIO;
+    }
+
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return switch (transport) {
+            case EPOLL -> EpollServerSocketChannel.class;
+            case IO_URING -> IoUringServerSocketChannel.class;
+            default -> NioServerSocketChannel.class;
+        };
+    }
+
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return switch (transport) {
+            case EPOLL -> EpollSocketChannel.class;
+            case IO_URING -> IoUringSocketChannel.class;
+            default -> NioSocketChannel.class;
+        };
+    }
+
+    public Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return switch (transport) {
+            case EPOLL -> EpollDatagramChannel.class;
+            case IO_URING -> IoUringDatagramChannel.class;
+            default -> NioDatagramChannel.class;
+        };
+    }
+
     public EventLoopGroup getBossGroup() {
         return bossGroup;
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,11 +21,18 @@ import com.google.inject.ProvisionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.broadcast.BroadcastService;
+import org.traccar.database.DeviceUpdateManager;
+import org.traccar.database.IngestJournal;
+import org.traccar.database.MetricsManager;
+import org.traccar.database.PositionBatchWriter;
+import org.traccar.helper.StartupTimer;
 import org.traccar.schedule.ScheduleManager;
+import org.traccar.schedule.TaskMemorySnapshot;
 import org.traccar.storage.DatabaseModule;
 import org.traccar.web.WebModule;
 import org.traccar.web.WebServer;
 
+import java.beans.Introspector;
 import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -36,6 +43,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 public final class Main {
 
@@ -112,6 +120,16 @@ public final class Main {
         }
     }
 
+    private static void logStartupTimings() {
+        var phases = StartupTimer.getPhases();
+        var metricsManager = injector.getInstance(MetricsManager.class);
+        phases.forEach((phase, millis) -> metricsManager.gauge(
+                "traccar_startup_seconds", "Startup phase duration", "phase", phase, () -> millis / 1000.0));
+        LOGGER.info("Startup timings: {}", phases.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue() + " ms")
+                .collect(Collectors.joining(", ")));
+    }
+
     public static void run(String configFile) {
         try {
             injector = Guice.createInjector(new MainModule(configFile), new DatabaseModule(), new WebModule());
@@ -119,24 +137,30 @@ public final class Main {
             LOGGER.info("Version: {}", Main.class.getPackage().getImplementationVersion());
             LOGGER.info("Starting server...");
 
+            // writers start before and stop after the services producing data for them
             var services = new ArrayList<LifecycleObject>();
             for (var clazz : List.of(
-                    ScheduleManager.class, ServerManager.class, WebServer.class, BroadcastService.class)) {
+                    TaskMemorySnapshot.class, ScheduleManager.class, PositionBatchWriter.class,
+                    DeviceUpdateManager.class, IngestJournal.class, BlockingExecutor.class, ServerManager.class,
+                    WebServer.class, BroadcastService.class)) {
                 var service = injector.getInstance(clazz);
                 if (service != null) {
+                    long start = System.nanoTime();
                     service.start();
+                    StartupTimer.record(Introspector.decapitalize(clazz.getSimpleName()), start);
                     services.add(service);
                 }
             }
+            logStartupTimings();
 
             Thread.setDefaultUncaughtExceptionHandler((t, e) -> LOGGER.error("Thread exception", e));
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 LOGGER.info("Stopping server...");
 
-                for (var service : services) {
+                for (int i = services.size() - 1; i >= 0; i--) {
                     try {
-                        service.stop();
+                        services.get(i).stop();
                     } catch (Exception e) {
                         throw new RuntimeException(e);
                     }
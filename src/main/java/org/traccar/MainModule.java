@@ -1,5 +1,5 @@
 /*
- * Copyright 2018 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2018 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,8 +34,12 @@ import org.traccar.broadcast.RedisBroadcastService;
 import org.traccar.broadcast.NullBroadcastService;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.BackpressureManager;
+import org.traccar.database.IngestJournal;
 import org.traccar.database.LdapProvider;
+import org.traccar.database.MetricsManager;
 import org.traccar.database.OpenIdProvider;
+import org.traccar.database.PositionBatchWriter;
 import org.traccar.database.StatisticsManager;
 import org.traccar.forward.EventForwarder;
 import org.traccar.forward.EventForwarderJson;
@@ -104,6 +108,7 @@ import jakarta.annotation.Nullable;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
+import javax.sql.DataSource;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Properties;
@@ -143,6 +148,50 @@ public class MainModule extends AbstractModule {
         }
     }
 
+    @Singleton
+    @Provides
+    public static PositionBatchWriter providePositionBatchWriter(
+            Config config, Storage storage, StatisticsManager statisticsManager) {
+        if (config.getInteger(Keys.DATABASE_BATCH_SIZE) > 1) {
+            return new PositionBatchWriter(config, storage, statisticsManager);
+        }
+        return null;
+    }
+
+    @Singleton
+    @Provides
+    public static BackpressureManager provideBackpressureManager(
+            Injector injector, Config config, Timer timer, MetricsManager metricsManager,
+            @Nullable PositionBatchWriter batchWriter, @Nullable BlockingExecutor blockingExecutor) {
+        if (config.getInteger(Keys.SERVER_BACKPRESSURE_HIGH) > 0) {
+            DataSource dataSource = config.getBoolean(Keys.DATABASE_MEMORY)
+                    ? null : injector.getInstance(DataSource.class);
+            return new BackpressureManager(config, timer, metricsManager, batchWriter, blockingExecutor, dataSource);
+        }
+        return null;
+    }
+
+    @Singleton
+    @Provides
+    public static BlockingExecutor provideBlockingExecutor(Config config, MetricsManager metricsManager) {
+        if (config.hasKey(Keys.SERVER_BLOCKING_EXECUTOR)) {
+            return new BlockingExecutor(config, metricsManager);
+        }
+        return null;
+    }
+
+    @Singleton
+    @Provides
+    public static IngestJournal provideIngestJournal(
+            Injector injector, Config config, MetricsManager metricsManager, ObjectMapper objectMapper) {
+        if (config.hasKey(Keys.SERVER_JOURNAL_PATH)) {
+            return new IngestJournal(
+                    config, metricsManager, objectMapper,
+                    positions -> injector.getInstance(ProcessingHandler.class).replay(positions));
+        }
+        return null;
+    }
+
     @Singleton
     @Provides
     public static ObjectMapper provideObjectMapper() {
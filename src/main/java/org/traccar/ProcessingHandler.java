@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,25 @@
 package org.traccar;
 
 import com.google.inject.Injector;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
+import org.traccar.database.BackpressureManager;
 import org.traccar.database.BufferingManager;
+import org.traccar.database.CommandsManager;
+import org.traccar.database.IngestJournal;
+import org.traccar.database.MetricsManager;
 import org.traccar.database.NotificationManager;
 import org.traccar.handler.BasePositionHandler;
 import org.traccar.handler.ComputedAttributesHandler;
@@ -55,41 +67,62 @@ import org.traccar.handler.events.MediaEventHandler;
 import org.traccar.handler.events.MotionEventHandler;
 import org.traccar.handler.events.OverspeedEventHandler;
 import org.traccar.handler.network.AcknowledgementHandler;
+import org.traccar.helper.LatencyHistogram;
 import org.traccar.helper.PositionLogger;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 @Singleton
 @ChannelHandler.Sharable
 public class ProcessingHandler extends ChannelInboundHandlerAdapter implements BufferingManager.Callback {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingHandler.class);
+
     private final CacheManager cacheManager;
     private final NotificationManager notificationManager;
     private final PositionLogger positionLogger;
     private final BufferingManager bufferingManager;
+    private final BackpressureManager backpressureManager;
+    private final IngestJournal journal;
+    private final EventLoopGroupFactory eventLoopGroupFactory;
     private final List<BasePositionHandler> positionHandlers;
     private final List<BaseEventHandler> eventHandlers;
     private final PostProcessHandler postProcessHandler;
+    private final BlockingExecutor blockingExecutor;
+    private final LatencyHistogram[] positionHandlerLatency;
+    private final LatencyHistogram eventHandlerLatency;
+    private final LatencyHistogram processingLatency;
 
-    private final Map<Long, Queue<Position>> queues = new HashMap<>();
+    private record Entry(ChannelHandlerContext context, Position position) {
+    }
 
-    private synchronized Queue<Position> getQueue(long deviceId) {
-        return queues.computeIfAbsent(deviceId, k -> new LinkedList<>());
+    private static final class Mailbox {
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
     }
 
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
     @Inject
     public ProcessingHandler(
-            Injector injector, Config config,
-            CacheManager cacheManager, NotificationManager notificationManager, PositionLogger positionLogger) {
+            Injector injector, Config config, CacheManager cacheManager, NotificationManager notificationManager,
+            PositionLogger positionLogger, MetricsManager metricsManager, CommandsManager commandsManager,
+            @Nullable BackpressureManager backpressureManager, @Nullable IngestJournal journal,
+            @Nullable BlockingExecutor blockingExecutor) {
         this.cacheManager = cacheManager;
+        this.backpressureManager = backpressureManager;
+        this.journal = journal;
+        eventLoopGroupFactory = injector.getInstance(EventLoopGroupFactory.class);
         this.notificationManager = notificationManager;
         this.positionLogger = positionLogger;
         bufferingManager = new BufferingManager(config, this);
@@ -133,11 +166,58 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                 .toList();
 
         postProcessHandler = injector.getInstance(PostProcessHandler.class);
+        this.blockingExecutor = blockingExecutor;
+
+        positionHandlerLatency = positionHandlers.stream()
+                .map(handler -> metricsManager.histogram(
+                        "traccar_position_handler_seconds", "Position handler latency",
+                        "handler", handler.getClass().getSimpleName()))
+                .toArray(LatencyHistogram[]::new);
+        eventHandlerLatency = metricsManager.histogram(
+                "traccar_event_handlers_seconds", "Event handlers latency");
+        processingLatency = metricsManager.histogram(
+                "traccar_processing_seconds", "Time from position receipt to acknowledgement");
+        metricsManager.register(
+                "traccar_buffering_seconds", "Time spent in the reordering buffer", bufferingManager.getDelay());
+        metricsManager.gauge("traccar_buffering_received", "Positions accepted by the reordering buffer",
+                bufferingManager::getReceived);
+        metricsManager.gauge("traccar_buffering_out_of_order", "Positions received out of order",
+                bufferingManager::getOutOfOrder);
+        metricsManager.gauge("traccar_buffering_late", "Positions received after a later one was released",
+                bufferingManager::getLateArrivals);
+        metricsManager.gauge("traccar_queue_devices", "Devices with queued positions", mailboxes::size);
+        metricsManager.gauge("traccar_queue_depth", "Positions queued for processing", this::getQueueDepth);
+        metricsManager.gauge("traccar_queue_depth_max", "Largest per-device processing queue",
+                this::getMaxQueueDepth);
+        metricsManager.gauge("traccar_command_queries_skipped", "Queued command lookups avoided",
+                commandsManager::getSkippedQueries);
+    }
+
+    private long getQueueDepth() {
+        long result = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            result += mailbox.size.get();
+        }
+        return result;
+    }
+
+    private int getMaxQueueDepth() {
+        int result = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            result = Math.max(result, mailbox.size.get());
+        }
+        return result;
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof Position position) {
+            if (backpressureManager != null) {
+                backpressureManager.acquire(position.getProtocol());
+            }
+            if (journal != null) {
+                journal.append(position, () -> ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position)));
+            }
             cacheManager.addDevice(position.getDeviceId(), position);
             bufferingManager.accept(ctx, position);
         } else {
@@ -145,28 +225,54 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         }
     }
 
+    /**
+     * Feeds recovered positions into processing through an internal channel that discards all responses.
+     */
+    public void replay(List<Position> positions) {
+        Channel channel = new Bootstrap()
+                .group(eventLoopGroupFactory.getWorkerGroup())
+                .channel(eventLoopGroupFactory.getDatagramChannelClass())
+                .handler(new ChannelOutboundHandlerAdapter() {
+                    @Override
+                    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                        ReferenceCountUtil.release(msg);
+                        promise.setSuccess();
+                    }
+                })
+                .register().syncUninterruptibly().channel();
+        channel.pipeline().addLast(this);
+        channel.eventLoop().execute(() -> positions.forEach(position -> channel.pipeline().fireChannelRead(position)));
+    }
+
     @Override
     public void onReleased(ChannelHandlerContext context, Position position) {
-        Queue<Position> queue = getQueue(position.getDeviceId());
-        boolean queued;
-        synchronized (queue) {
-            queued = !queue.isEmpty();
-            queue.offer(position);
-        }
-        if (!queued) {
-            processPositionHandlers(context, position);
+        boolean[] idle = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(position.getDeviceId(), (deviceId, value) -> {
+            Mailbox result = value != null ? value : new Mailbox();
+            result.queue.offer(new Entry(context, position));
+            idle[0] = result.size.incrementAndGet() == 1;
+            return result;
+        });
+        if (idle[0]) {
+            Entry entry = mailbox.queue.poll();
+            processPositionHandlers(entry.context(), entry.position());
         }
     }
 
     private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
-        var iterator = positionHandlers.iterator();
-        iterator.next().handlePosition(position, new BasePositionHandler.Callback() {
+        executePositionHandler(0, position, new BasePositionHandler.Callback() {
+            private int index;
+            private long start = System.nanoTime();
+
             @Override
             public void processed(boolean filtered) {
+                positionHandlerLatency[index].recordSince(start);
                 Runnable continuation = () -> {
                     if (!filtered) {
-                        if (iterator.hasNext()) {
-                            iterator.next().handlePosition(position, this);
+                        index += 1;
+                        if (index < positionHandlers.size()) {
+                            start = System.nanoTime();
+                            executePositionHandler(index, position, this);
                         } else {
                             processEventHandlers(ctx, position);
                         }
@@ -183,35 +289,66 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         });
     }
 
+    private void executePositionHandler(int index, Position position, BasePositionHandler.Callback callback) {
+        BasePositionHandler handler = positionHandlers.get(index);
+        if (blockingExecutor != null && handler.isBlocking()) {
+            blockingExecutor.execute(() -> handler.handlePosition(position, callback));
+        } else {
+            handler.handlePosition(position, callback);
+        }
+    }
+
     private void processEventHandlers(ChannelHandlerContext ctx, Position position) {
+        if (blockingExecutor != null) {
+            blockingExecutor.execute(() -> {
+                analyzePosition(position);
+                ctx.executor().execute(() -> finishedProcessing(ctx, position, false));
+            });
+        } else {
+            analyzePosition(position);
+            finishedProcessing(ctx, position, false);
+        }
+    }
+
+    private void analyzePosition(Position position) {
+        long start = System.nanoTime();
         eventHandlers.forEach(handler -> handler.analyzePosition(
                 position, (event) -> notificationManager.updateEvents(Map.of(event, position))));
-        finishedProcessing(ctx, position, false);
+        eventHandlerLatency.recordSince(start);
+    }
+
+    private void acknowledge(ChannelHandlerContext ctx, Position position) {
+        if (journal == null || journal.commit(position)) {
+            ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
+        }
+        processingLatency.record(TimeUnit.MILLISECONDS.toNanos(
+                System.currentTimeMillis() - position.getServerTime().getTime()));
     }
 
     private void finishedProcessing(ChannelHandlerContext ctx, Position position, boolean filtered) {
         if (!filtered) {
             postProcessHandler.handlePosition(position, ignore -> {
                 positionLogger.log(ctx, position);
-                ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
-                processNextPosition(ctx, position.getDeviceId());
+                acknowledge(ctx, position);
+                processNextPosition(position.getDeviceId());
             });
         } else {
-            ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
-            processNextPosition(ctx, position.getDeviceId());
+            acknowledge(ctx, position);
+            processNextPosition(position.getDeviceId());
         }
         cacheManager.removeDevice(position.getDeviceId(), position);
+        if (backpressureManager != null) {
+            backpressureManager.release(position.getProtocol());
+        }
     }
 
-    private void processNextPosition(ChannelHandlerContext ctx, long deviceId) {
-        Queue<Position> queue = getQueue(deviceId);
-        Position nextPosition;
-        synchronized (queue) {
-            queue.poll(); // remove current position
-            nextPosition = queue.peek();
-        }
-        if (nextPosition != null) {
-            ctx.executor().execute(() -> processPositionHandlers(ctx, nextPosition));
+    private void processNextPosition(long deviceId) {
+        Mailbox mailbox = mailboxes.get(deviceId);
+        if (mailbox.size.decrementAndGet() > 0) {
+            Entry next = mailbox.queue.poll();
+            next.context().executor().execute(() -> processPositionHandlers(next.context(), next.position()));
+        } else {
+            mailboxes.computeIfPresent(deviceId, (key, value) -> value.size.get() > 0 ? value : null);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.ClassScanner;
+import org.traccar.helper.StartupTimer;
 import org.traccar.schedule.SubscriptionTask;
 
 import jakarta.inject.Inject;
@@ -50,6 +51,7 @@ public class ServerManager implements LifecycleObject {
     public ServerManager(Injector injector, Config config, SubscriptionTask subscriptionTask)
         throws IOException, URISyntaxException, ReflectiveOperationException {
         this.subscriptionTask = subscriptionTask;
+        long start = System.nanoTime();
         Set<String> enabledProtocols = null;
         if (config.hasKey(Keys.PROTOCOLS_ENABLE)) {
             enabledProtocols = new HashSet<>(Arrays.asList(config.getString(Keys.PROTOCOLS_ENABLE).split("[, ]")));
@@ -64,6 +66,7 @@ public class ServerManager implements LifecycleObject {
                 }
             }
         }
+        StartupTimer.record("protocolScan", start);
     }
 
     public BaseProtocol getProtocol(String name) {
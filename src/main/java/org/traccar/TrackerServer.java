@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,10 +19,11 @@ import io.netty.bootstrap.AbstractBootstrap;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.uring.IoUringChannelOption;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.traccar.config.Config;
@@ -42,6 +43,7 @@ public abstract class TrackerServer implements TrackerConnector {
 
     private final int port;
     private final String address;
+    private final int channels;
 
     private final ChannelGroup channelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 
@@ -84,16 +86,29 @@ public abstract class TrackerServer implements TrackerConnector {
         if (datagram) {
             bootstrap = new Bootstrap()
                     .group(eventLoopGroupFactory.getWorkerGroup())
-                    .channel(NioDatagramChannel.class)
+                    .channel(eventLoopGroupFactory.getDatagramChannelClass())
                     .handler(pipelineFactory);
+            if (eventLoopGroupFactory.isReusePortSupported()) {
+                int count = config.getInteger(Keys.SERVER_NETTY_DATAGRAM_CHANNELS);
+                channels = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+                bootstrap.option(reusePortOption(eventLoopGroupFactory.getTransport()), true);
+            } else {
+                channels = 1;
+            }
         } else {
             bootstrap = new ServerBootstrap()
                     .group(eventLoopGroupFactory.getBossGroup(), eventLoopGroupFactory.getWorkerGroup())
-                    .channel(NioServerSocketChannel.class)
+                    .channel(eventLoopGroupFactory.getServerChannelClass())
                     .childHandler(pipelineFactory);
+            channels = 1;
         }
     }
 
+    private static ChannelOption<Boolean> reusePortOption(EventLoopGroupFactory.Transport transport) {
+        return transport == EventLoopGroupFactory.Transport.IO_URING
+                ? IoUringChannelOption.SO_REUSEPORT : EpollChannelOption.SO_REUSEPORT;
+    }
+
     protected abstract void addProtocolHandlers(PipelineBuilder pipeline, Config config);
 
     public int getPort() {
@@ -118,9 +133,11 @@ public abstract class TrackerServer implements TrackerConnector {
             endpoint = new InetSocketAddress(address, port);
         }
 
-        Channel channel = bootstrap.bind(endpoint).syncUninterruptibly().channel();
-        if (channel != null) {
-            getChannelGroup().add(channel);
+        for (int i = 0; i < channels; i++) {
+            Channel channel = bootstrap.bind(endpoint).syncUninterruptibly().channel();
+            if (channel != null) {
+                getChannelGroup().add(channel);
+            }
         }
     }
 
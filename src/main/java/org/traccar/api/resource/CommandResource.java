@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 Gabor Somogyi (gabor.g.somogyi@gmail.com)
  * Copyright 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
@@ -37,6 +37,7 @@ import org.traccar.model.QueuedCommand;
 import org.traccar.model.Typed;
 import org.traccar.model.User;
 import org.traccar.model.UserRestrictions;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
@@ -77,6 +78,9 @@ public class CommandResource extends ExtendedObjectResource<Command> {
     @Inject
     private CommandSenderManager commandSenderManager;
 
+    @Inject
+    private PermissionIndex permissionIndex;
+
     @Context
     private HttpServletRequest request;
 
@@ -133,7 +137,8 @@ public class CommandResource extends ExtendedObjectResource<Command> {
 
         if (groupId > 0) {
             permissionsService.checkPermission(Group.class, getUserId(), groupId);
-            var devices = DeviceUtil.getAccessibleDevices(storage, getUserId(), List.of(), List.of(groupId));
+            var devices = DeviceUtil.getAccessibleDevices(
+                    storage, permissionIndex, getUserId(), List.of(), List.of(groupId));
             List<QueuedCommand> queuedCommands = new ArrayList<>();
             for (Device device : devices) {
                 Command command = QueuedCommand.fromCommand(entity).toCommand();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2021 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,8 +40,11 @@ public class EventResource extends BaseResource {
     @Path("{id}")
     @GET
     public Event get(@PathParam("id") long id) throws StorageException {
-        Event event = storage.getObject(Event.class, new Request(
-                new Columns.All(), new Condition.Equals("id", id)));
+        var request = new Request(new Columns.All(), new Condition.Equals("id", id));
+        Event event = storage.replica().getObject(Event.class, request);
+        if (event == null) {
+            event = storage.getObject(Event.class, request); // recent event not replicated yet
+        }
         if (event == null) {
             throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND).build());
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2025 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.traccar.api.resource;
 
+import jakarta.annotation.Nullable;
 import jakarta.annotation.security.PermitAll;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -26,6 +27,7 @@ import jakarta.ws.rs.core.Response;
 import org.traccar.api.BaseResource;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.BackpressureManager;
 import org.traccar.database.StatisticsManager;
 import org.traccar.model.Server;
 import org.traccar.storage.Storage;
@@ -47,6 +49,10 @@ public class HealthResource extends BaseResource {
     @Inject
     private Storage storage;
 
+    @Inject
+    @Nullable
+    private BackpressureManager backpressureManager;
+
     private static long messageLastTotal;
     private static long messageLastCheck;
 
@@ -56,6 +62,9 @@ public class HealthResource extends BaseResource {
         try {
             checkMessages();
             checkDatabase();
+            if (backpressureManager != null && backpressureManager.isActive()) {
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("BACKPRESSURE").build();
+            }
             return Response.ok("OK").build();
         } catch (Exception ignore) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).build();
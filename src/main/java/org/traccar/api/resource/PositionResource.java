@@ -42,10 +42,12 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Path("positions")
@@ -68,14 +70,13 @@ public class PositionResource extends BaseResource {
             @QueryParam("geofenceId") long geofenceId, @QueryParam("from") Date from, @QueryParam("to") Date to)
             throws StorageException {
         if (!positionIds.isEmpty()) {
-            var positions = new ArrayList<Position>();
-            for (long positionId : positionIds) {
-                Position position = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", positionId)));
-                permissionsService.checkPermission(Device.class, getUserId(), position.getDeviceId());
-                positions.add(position);
+            var positions = storage.getObjectsByIds(Position.class, positionIds).stream()
+                    .collect(Collectors.toMap(Position::getId, Function.identity()));
+            var deviceIds = positions.values().stream().map(Position::getDeviceId).collect(Collectors.toSet());
+            for (long positionDeviceId : deviceIds) {
+                permissionsService.checkPermission(Device.class, getUserId(), positionDeviceId);
             }
-            return positions.stream();
+            return positionIds.stream().map(positions::get).filter(Objects::nonNull);
         } else if (deviceId > 0) {
             permissionsService.checkPermission(Device.class, getUserId(), deviceId);
             if (from != null && to != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package org.traccar.api.resource;
 
 import org.traccar.api.BaseResource;
+import org.traccar.database.MetricsManager;
 import org.traccar.model.Statistics;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -23,6 +24,7 @@ import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -31,6 +33,7 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 
 import java.util.Date;
+import java.util.Map;
 import java.util.stream.Stream;
 
 @Path("statistics")
@@ -38,6 +41,9 @@ import java.util.stream.Stream;
 @Consumes(MediaType.APPLICATION_JSON)
 public class StatisticsResource extends BaseResource {
 
+    @Inject
+    private MetricsManager metricsManager;
+
     @GET
     public Stream<Statistics> get(
             @QueryParam("from") Date from, @QueryParam("to") Date to) throws StorageException {
@@ -48,4 +54,11 @@ public class StatisticsResource extends BaseResource {
                 new Order("captureTime")));
     }
 
+    @Path("metrics")
+    @GET
+    public Map<String, Object> getMetrics() throws StorageException {
+        permissionsService.checkAdmin(getUserId());
+        return metricsManager.getMetrics();
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.traccar.model.Schedulable;
 import org.traccar.model.Server;
 import org.traccar.model.User;
 import org.traccar.model.UserRestrictions;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -42,13 +43,15 @@ import java.text.SimpleDateFormat;
 public class PermissionsService {
 
     private final Storage storage;
+    private final PermissionIndex permissionIndex;
 
     private Server server;
     private User user;
 
     @Inject
-    public PermissionsService(Storage storage) {
+    public PermissionsService(Storage storage, PermissionIndex permissionIndex) {
         this.storage = storage;
+        this.permissionIndex = permissionIndex;
     }
 
     public Server getServer() throws StorageException {
@@ -212,6 +215,12 @@ public class PermissionsService {
     public <T extends BaseModel> void checkPermission(
             Class<T> clazz, long userId, long objectId) throws StorageException, SecurityException {
         if (!getUser(userId).getAdministrator() && !(clazz.equals(User.class) && userId == objectId)) {
+            if (PermissionIndex.supports(clazz)) {
+                if (!permissionIndex.checkPermission(clazz, userId, objectId)) {
+                    throw new SecurityException(clazz.getSimpleName() + " access denied");
+                }
+                return;
+            }
             var object = storage.getObject(clazz, new Request(
                     new Columns.Include("id"),
                     new Condition.And(
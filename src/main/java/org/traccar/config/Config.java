@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.traccar.config;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.name.Named;
 import org.traccar.helper.Log;
+import org.traccar.helper.StartupTimer;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -40,6 +41,7 @@ public class Config {
 
     @Inject
     public Config(@Named("configFile") String file) throws IOException {
+        long start = System.nanoTime();
         try {
             try (InputStream inputStream = new FileInputStream(file)) {
                 properties.loadFromXML(inputStream);
@@ -49,6 +51,7 @@ public class Config {
                     || Boolean.parseBoolean(properties.getProperty("config.useEnvironmentVariables"));
 
             Log.setupLogger(this);
+            StartupTimer.record("config", start);
         } catch (InvalidPropertiesFormatException e) {
             Log.setupDefaultLogger();
             throw new RuntimeException("Configuration file is not a valid XML document", e);
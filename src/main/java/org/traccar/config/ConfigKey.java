@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2019 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,13 +18,17 @@ package org.traccar.config;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class ConfigKey<T> {
 
+    private static final AtomicInteger INDEX_COUNT = new AtomicInteger();
+
     private final String key;
     private final Set<KeyType> types = new HashSet<>();
     private final Class<T> valueClass;
     private final T defaultValue;
+    private volatile int index = -1;
 
     ConfigKey(String key, List<KeyType> types, Class<T> valueClass, T defaultValue) {
         this.key = key;
@@ -49,6 +53,26 @@ public abstract class ConfigKey<T> {
         return defaultValue;
     }
 
+    /**
+     * Dense index assigned on first use, used to address per-device lookup tables.
+     */
+    public int getIndex() {
+        int result = index;
+        if (result < 0) {
+            synchronized (this) {
+                if (index < 0) {
+                    index = INDEX_COUNT.getAndIncrement();
+                }
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    public static int getIndexCount() {
+        return INDEX_COUNT.get();
+    }
+
 }
 
 class StringConfigKey extends ConfigKey<String> {
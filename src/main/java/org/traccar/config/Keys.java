@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2019 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -322,6 +322,91 @@ public final class Keys {
             "server.delayAcknowledgement",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Execute blocking processing stages, like database queries, outside of the network event loop. Use 'virtual'
+     * for virtual threads, if supported by the Java runtime, or 'platform' for a fixed thread pool. By default all
+     * stages are executed on the event loop.
+     */
+    public static final ConfigKey<String> SERVER_BLOCKING_EXECUTOR = new StringConfigKey(
+            "server.blockingExecutor",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of threads for the 'platform' blocking executor. Also used as a fallback when virtual threads are not
+     * available.
+     */
+    public static final ConfigKey<Integer> SERVER_BLOCKING_THREADS = new IntegerConfigKey(
+            "server.blockingThreads",
+            List.of(KeyType.CONFIG),
+            16);
+
+    /**
+     * Queue capacity of the 'platform' blocking executor. When the queue is full, tasks run on the network event loop.
+     */
+    public static final ConfigKey<Integer> SERVER_BLOCKING_QUEUE = new IntegerConfigKey(
+            "server.blockingQueue",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Path to the ingest journal file. If set, decoded positions are written to a memory mapped journal and, with
+     * delayed acknowledgement, devices are acknowledged as soon as the record is on disk. Uncommitted records are
+     * replayed on startup.
+     */
+    public static final ConfigKey<String> SERVER_JOURNAL_PATH = new StringConfigKey(
+            "server.journal.path",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Ingest journal file size in bytes. When the journal is full, positions are acknowledged after processing.
+     */
+    public static final ConfigKey<Integer> SERVER_JOURNAL_SIZE = new IntegerConfigKey(
+            "server.journal.size",
+            List.of(KeyType.CONFIG),
+            64 * 1024 * 1024);
+
+    /**
+     * Ingest journal group sync interval in milliseconds. Zero syncs every record individually.
+     */
+    public static final ConfigKey<Long> SERVER_JOURNAL_SYNC_INTERVAL = new LongConfigKey(
+            "server.journal.syncInterval",
+            List.of(KeyType.CONFIG),
+            10L);
+
+    /**
+     * Admission control high watermark. When the number of positions in processing, pending database writes and
+     * threads waiting for a database connection reaches this value, TCP connections stop reading and UDP datagrams
+     * are dropped. Disabled by default.
+     */
+    public static final ConfigKey<Integer> SERVER_BACKPRESSURE_HIGH = new IntegerConfigKey(
+            "server.backpressure.high",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Admission control low watermark. Reading resumes once the load drops to this value. Default is half of the
+     * high watermark.
+     */
+    public static final ConfigKey<Integer> SERVER_BACKPRESSURE_LOW = new IntegerConfigKey(
+            "server.backpressure.low",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Netty network transport. Options are 'nio', 'epoll', 'io_uring' and 'auto'. Native transports are only
+     * available on Linux. With 'auto' the best available transport is selected. Default is 'nio'.
+     */
+    public static final ConfigKey<String> SERVER_NETTY_TRANSPORT = new StringConfigKey(
+            "server.nettyTransport",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of datagram channels bound to each UDP port using SO_REUSEPORT. Only used with native transports. If
+     * not specified or zero, number of available processors is used.
+     */
+    public static final ConfigKey<Integer> SERVER_NETTY_DATAGRAM_CHANNELS = new IntegerConfigKey(
+            "server.nettyDatagramChannels",
+            List.of(KeyType.CONFIG),
+            0);
+
     /**
      * Number of Netty boss threads. If not specified or zero, Netty default value is used.
      */
@@ -447,6 +532,13 @@ public final class Keys {
             "database.memory",
             List.of(KeyType.CONFIG));
 
+    /**
+     * File used to persist the in-memory database. It is loaded on startup and rewritten periodically.
+     */
+    public static final ConfigKey<String> DATABASE_MEMORY_SNAPSHOT = new StringConfigKey(
+            "database.memorySnapshot",
+            List.of(KeyType.CONFIG));
+
     /**
      * Path to the database driver JAR file. Traccar includes drivers for MySQL, PostgreSQL and H2 databases. If you use
      * one of those, you don't need to specify this parameter.
@@ -483,6 +575,28 @@ public final class Keys {
             "database.password",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Optional read replica JDBC URL. History, report and export queries are sent to the replica, while writes and
+     * lag-sensitive reads stay on the primary database.
+     */
+    public static final ConfigKey<String> DATABASE_REPLICA_URL = new StringConfigKey(
+            "database.replica.url",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Read replica user. Defaults to the primary database user.
+     */
+    public static final ConfigKey<String> DATABASE_REPLICA_USER = new StringConfigKey(
+            "database.replica.user",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Read replica password. Defaults to the primary database password.
+     */
+    public static final ConfigKey<String> DATABASE_REPLICA_PASSWORD = new StringConfigKey(
+            "database.replica.password",
+            List.of(KeyType.CONFIG));
+
     /**
      * Path to Liquibase master changelog file.
      */
@@ -491,6 +605,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "./schema/changelog-master.xml");
 
+    /**
+     * Load all devices with their groups, links and latest positions into the cache on startup using bulk queries.
+     * Warmed devices stay cached, which avoids per-device permission queries when many devices reconnect at once.
+     */
+    public static final ConfigKey<Boolean> DATABASE_CACHE_WARMUP = new BooleanConfigKey(
+            "database.cacheWarmup",
+            List.of(KeyType.CONFIG),
+            false);
+
     /**
      * Database connection pool size. Default value is defined by the HikariCP library.
      */
@@ -498,6 +621,85 @@ public final class Keys {
             "database.maxPoolSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Maximum number of positions written to the database in a single batch. If the value is greater than one,
+     * positions from all connections are collected in a queue and stored using batched inserts. By default each
+     * position is stored with a separate query.
+     */
+    public static final ConfigKey<Integer> DATABASE_BATCH_SIZE = new IntegerConfigKey(
+            "database.batch.size",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds a position can wait in the batch queue before the batch is written, even if it
+     * is not full.
+     */
+    public static final ConfigKey<Long> DATABASE_BATCH_DELAY = new LongConfigKey(
+            "database.batch.delay",
+            List.of(KeyType.CONFIG),
+            50L);
+
+    /**
+     * Interval in milliseconds for writing device state changes (status, last update, latest position, motion and
+     * overspeed state) to the database. Changes are merged in memory and written once per device. Status
+     * transitions are always written immediately. By default every change is written right away.
+     */
+    public static final ConfigKey<Long> DATABASE_DEVICE_UPDATE_INTERVAL = new LongConfigKey(
+            "database.deviceUpdateInterval",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Capacity of the batch queue. When the queue is full, positions are stored synchronously.
+     */
+    public static final ConfigKey<Integer> DATABASE_BATCH_QUEUE = new IntegerConfigKey(
+            "database.batch.queue",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Number of prepared statements cached by the JDBC driver for each connection. Applies to MySQL, MariaDB and
+     * PostgreSQL drivers. Zero keeps driver defaults.
+     */
+    public static final ConfigKey<Integer> DATABASE_STATEMENT_CACHE_SIZE = new IntegerConfigKey(
+            "database.statementCacheSize",
+            List.of(KeyType.CONFIG),
+            250);
+
+    /**
+     * Number of rows fetched per round trip when streaming large results, such as position history and exports.
+     */
+    public static final ConfigKey<Integer> DATABASE_FETCH_SIZE = new IntegerConfigKey(
+            "database.fetchSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
+    /**
+     * Store position attributes in the compact binary format instead of JSON. Existing JSON rows stay readable and
+     * are converted in the background. The conversion keeps the original JSON column, which can be cleared manually
+     * to reclaim space once nothing else reads it. Rows written while this option is enabled are binary only: their
+     * JSON column is empty, so tools reading the JSON column directly do not see their attributes. Traccar itself
+     * always reads the binary column, so disabling the option later keeps all rows readable.
+     */
+    public static final ConfigKey<Boolean> DATABASE_BINARY_ATTRIBUTES = new BooleanConfigKey(
+            "database.binaryAttributes",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Convert an empty positions table to monthly range partitions on PostgreSQL and MySQL. Partitions are created
+     * ahead of time and old ones are dropped according to the positions retention.
+     */
+    public static final ConfigKey<Boolean> DATABASE_PARTITION_POSITIONS = new BooleanConfigKey(
+            "database.partitionPositions",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of days to keep positions. Can be overridden for a group or device. Zero keeps positions forever.
+     */
+    public static final ConfigKey<Integer> POSITIONS_RETENTION_DAYS = new IntegerConfigKey(
+            "positions.retentionDays",
+            List.of(KeyType.CONFIG, KeyType.SERVER, KeyType.DEVICE),
+            0);
+
     /**
      * SQL query to check connection status. Default value is 'SELECT 1'. For Oracle database you can use
      * 'SELECT 1 FROM DUAL'.
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.netty.channel.Channel;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.BlockingExecutor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for incoming positions. Load is the number of positions being processed plus pending database
+ * writes, queued blocking tasks and threads waiting for a database connection. Above the high watermark TCP channels
+ * stop reading and UDP datagrams are dropped until load falls to the low watermark.
+ */
+public class BackpressureManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackpressureManager.class);
+
+    private static final long CHECK_INTERVAL = 1000;
+
+    private final Timer timer;
+    private final MetricsManager metricsManager;
+    private final PositionBatchWriter batchWriter;
+    private final BlockingExecutor blockingExecutor;
+    private final HikariDataSource dataSource;
+    private final int highWatermark;
+    private final int lowWatermark;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, AtomicInteger> protocolInFlight = new ConcurrentHashMap<>();
+    private final Set<Channel> pausedChannels = ConcurrentHashMap.newKeySet();
+    private final AtomicLong shed = new AtomicLong();
+
+    private volatile boolean active;
+    private boolean checkScheduled;
+
+    public BackpressureManager(
+            Config config, Timer timer, MetricsManager metricsManager,
+            PositionBatchWriter batchWriter, BlockingExecutor blockingExecutor, DataSource dataSource) {
+        this.timer = timer;
+        this.metricsManager = metricsManager;
+        this.batchWriter = batchWriter;
+        this.blockingExecutor = blockingExecutor;
+        this.dataSource = dataSource instanceof HikariDataSource hikariDataSource ? hikariDataSource : null;
+        highWatermark = config.getInteger(Keys.SERVER_BACKPRESSURE_HIGH);
+        int low = config.getInteger(Keys.SERVER_BACKPRESSURE_LOW);
+        lowWatermark = low > 0 ? Math.min(low, highWatermark) : highWatermark / 2;
+
+        metricsManager.gauge("traccar_backpressure", "Whether admission control is active", () -> active ? 1 : 0);
+        metricsManager.gauge("traccar_backpressure_load", "Current admission control load", this::getLoad);
+        metricsManager.gauge("traccar_backpressure_paused", "Channels paused by admission control",
+                pausedChannels::size);
+        metricsManager.gauge("traccar_backpressure_shed", "Datagrams dropped by admission control", shed::get);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getLoad() {
+        int load = inFlight.get();
+        if (batchWriter != null) {
+            load += batchWriter.getQueueSize();
+        }
+        if (blockingExecutor != null) {
+            load += blockingExecutor.getPending();
+        }
+        if (dataSource != null && dataSource.getHikariPoolMXBean() != null) {
+            load += dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection();
+        }
+        return load;
+    }
+
+    public void acquire(String protocol) {
+        inFlight.incrementAndGet();
+        if (protocol != null) {
+            protocolInFlight.computeIfAbsent(protocol, key -> {
+                AtomicInteger counter = new AtomicInteger();
+                metricsManager.gauge("traccar_protocol_in_flight", "Positions in processing per protocol",
+                        "protocol", key, counter::get);
+                return counter;
+            }).incrementAndGet();
+        }
+        if (!active && getLoad() >= highWatermark) {
+            update();
+        }
+    }
+
+    public void release(String protocol) {
+        inFlight.decrementAndGet();
+        AtomicInteger counter = protocol != null ? protocolInFlight.get(protocol) : null;
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+        if (active && getLoad() <= lowWatermark) {
+            update();
+        }
+    }
+
+    /**
+     * Decides whether a received message should be processed. Stream channels are paused instead of losing data, so
+     * the current message is always accepted for them.
+     */
+    public boolean admit(Channel channel, boolean datagram) {
+        if (!active) {
+            return true;
+        }
+        if (datagram) {
+            shed.incrementAndGet();
+            return false;
+        }
+        // same monitor as update(), so a release either happens before the pause or resumes the channel
+        synchronized (this) {
+            if (active && pausedChannels.add(channel)) {
+                channel.config().setAutoRead(false);
+            }
+        }
+        return true;
+    }
+
+    public void channelClosed(Channel channel) {
+        pausedChannels.remove(channel);
+    }
+
+    private synchronized void update() {
+        int load = getLoad();
+        if (!active && load >= highWatermark) {
+            active = true;
+            LOGGER.warn("Backpressure activated with load {}", load);
+            scheduleCheck();
+        } else if (active && load <= lowWatermark) {
+            active = false;
+            LOGGER.info("Backpressure released with load {}", load);
+            pausedChannels.removeIf(channel -> {
+                channel.config().setAutoRead(true);
+                return true;
+            });
+        }
+    }
+
+    private synchronized void scheduleCheck() {
+        if (!checkScheduled) {
+            checkScheduled = true;
+            timer.newTimeout(timeout -> {
+                synchronized (this) {
+                    checkScheduled = false;
+                }
+                update();
+                if (active) {
+                    scheduleCheck();
+                }
+            }, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,14 +23,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.helper.LatencyHistogram;
 import org.traccar.model.Position;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Reorders positions by fix time before processing. Each device has its own priority queue and a single release
+ * deadline. A position is released once it has been held for the threshold and there is no earlier position still
+ * waiting for the same device.
+ */
 public class BufferingManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BufferingManager.class);
@@ -39,22 +48,23 @@ public class BufferingManager {
         void onReleased(ChannelHandlerContext context, Position position);
     }
 
+    private static int compareTime(Date left, Date right) {
+        if (left != null && right != null) {
+            return left.compareTo(right);
+        }
+        return 0;
+    }
+
     private static final class Holder implements Comparable<Holder> {
 
         private final ChannelHandlerContext context;
         private final Position position;
-        private Timeout timeout;
+        private final long releaseTime;
 
-        private Holder(ChannelHandlerContext context, Position position) {
+        private Holder(ChannelHandlerContext context, Position position, long releaseTime) {
             this.context = context;
             this.position = position;
-        }
-
-        private int compareTime(Date left, Date right) {
-            if (left != null && right != null) {
-                return left.compareTo(right);
-            }
-            return 0;
+            this.releaseTime = releaseTime;
         }
 
         @Override
@@ -73,47 +83,118 @@ public class BufferingManager {
         }
     }
 
+    private static final class DeviceBuffer {
+
+        private final PriorityQueue<Holder> queue = new PriorityQueue<>();
+        private Timeout timeout;
+        private Holder latest;
+        private Date watermark;
+        private boolean removed;
+    }
+
     private final Timer timer = new HashedWheelTimer();
     private final Callback callback;
     private final long threshold;
 
-    private final Map<Long, TreeSet<Holder>> buffer = new HashMap<>();
+    private final Map<Long, DeviceBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong outOfOrder = new AtomicLong();
+    private final AtomicLong lateArrivals = new AtomicLong();
+    private final LatencyHistogram delay = new LatencyHistogram();
 
     public BufferingManager(Config config, Callback callback) {
         this.callback = callback;
         threshold = config.getLong(Keys.SERVER_BUFFERING_THRESHOLD);
     }
 
-    private Timeout scheduleTimeout(Holder holder) {
-        return timer.newTimeout(
-                timeout -> {
-                    LOGGER.debug("released {}", holder.position.getFixTime());
-                    synchronized (buffer) {
-                        buffer.get(holder.position.getDeviceId()).remove(holder);
-                    }
-                    holder.context.executor().execute(() -> {
-                        callback.onReleased(holder.context, holder.position);
-                    });
-                },
-                threshold, TimeUnit.MILLISECONDS);
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getOutOfOrder() {
+        return outOfOrder.get();
+    }
+
+    public long getLateArrivals() {
+        return lateArrivals.get();
+    }
+
+    public LatencyHistogram getDelay() {
+        return delay;
     }
 
     public void accept(ChannelHandlerContext context, Position position) {
         if (threshold > 0) {
-            synchronized (buffer) {
-                LOGGER.debug("queued {}", position.getFixTime());
-                var queue = buffer.computeIfAbsent(position.getDeviceId(), k -> new TreeSet<>());
-                Holder holder = new Holder(context, position);
-                holder.timeout = scheduleTimeout(holder);
-                queue.add(holder);
-                queue.tailSet(holder, false).forEach(h -> {
-                    h.timeout.cancel();
-                    h.timeout = scheduleTimeout(h);
-                });
+            received.incrementAndGet();
+            Holder holder = new Holder(context, position, System.currentTimeMillis() + threshold);
+            while (true) {
+                DeviceBuffer buffer = buffers.computeIfAbsent(position.getDeviceId(), k -> new DeviceBuffer());
+                synchronized (buffer) {
+                    if (buffer.removed) {
+                        continue;
+                    }
+                    LOGGER.debug("queued {}", position.getFixTime());
+                    if (buffer.watermark != null && compareTime(position.getFixTime(), buffer.watermark) < 0) {
+                        lateArrivals.incrementAndGet();
+                    }
+                    if (buffer.latest != null && buffer.latest.compareTo(holder) > 0) {
+                        outOfOrder.incrementAndGet();
+                    } else {
+                        buffer.latest = holder;
+                    }
+                    buffer.queue.add(holder);
+                    if (buffer.timeout == null) {
+                        scheduleRelease(position.getDeviceId(), buffer, threshold);
+                    }
+                }
+                break;
             }
         } else {
             callback.onReleased(context, position);
         }
     }
 
+    private void scheduleRelease(long deviceId, DeviceBuffer buffer, long delay) {
+        buffer.timeout = timer.newTimeout(timeout -> release(deviceId, buffer), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(long deviceId, DeviceBuffer buffer) {
+        List<Holder> released = new ArrayList<>();
+        synchronized (buffer) {
+            long now = System.currentTimeMillis();
+            while (!buffer.queue.isEmpty() && buffer.queue.peek().releaseTime <= now) {
+                Holder holder = buffer.queue.poll();
+                buffer.watermark = holder.position.getFixTime();
+                delay.record(TimeUnit.MILLISECONDS.toNanos(now - holder.releaseTime + threshold));
+                released.add(holder);
+            }
+            if (buffer.queue.isEmpty()) {
+                buffer.timeout = null;
+                buffer.removed = true;
+                buffers.remove(deviceId, buffer);
+            } else {
+                scheduleRelease(deviceId, buffer, Math.max(buffer.queue.peek().releaseTime - now, 1));
+            }
+        }
+        deliver(released);
+    }
+
+    private void deliver(List<Holder> released) {
+        int start = 0;
+        while (start < released.size()) {
+            ChannelHandlerContext context = released.get(start).context;
+            int end = start + 1;
+            while (end < released.size() && released.get(end).context == context) {
+                end += 1;
+            }
+            List<Holder> group = released.subList(start, end);
+            context.executor().execute(() -> group.forEach(holder -> {
+                LOGGER.debug("released {}", holder.position.getFixTime());
+                callback.onReleased(holder.context, holder.position);
+            }));
+            start = end;
+        }
+    }
+
 }
@@ -16,6 +16,8 @@
  */
 package org.traccar.database;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.BaseProtocol;
 import org.traccar.ServerManager;
 import org.traccar.broadcast.BroadcastInterface;
@@ -44,11 +46,17 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Singleton
 public class CommandsManager implements BroadcastInterface {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandsManager.class);
+
     private final Storage storage;
     private final ServerManager serverManager;
     private final SmsManager smsManager;
@@ -58,6 +66,10 @@ public class CommandsManager implements BroadcastInterface {
     private final CacheManager cacheManager;
     private final CommandSenderManager commandSenderManager;
 
+    private final Set<Long> queuedDevices = ConcurrentHashMap.newKeySet();
+    private final AtomicLong skippedQueries = new AtomicLong();
+    private volatile boolean queuedDevicesLoaded;
+
     @Inject
     public CommandsManager(
             Storage storage, ServerManager serverManager, @Nullable SmsManager smsManager,
@@ -73,6 +85,21 @@ public class CommandsManager implements BroadcastInterface {
         this.cacheManager = cacheManager;
         this.commandSenderManager = commandSenderManager;
         broadcastService.registerListener(this);
+        loadQueuedDevices();
+    }
+
+    private void loadQueuedDevices() {
+        try {
+            storage.getObjects(QueuedCommand.class, new Request(new Columns.Include("deviceId")))
+                    .forEach(command -> queuedDevices.add(command.getDeviceId()));
+            queuedDevicesLoaded = true;
+        } catch (StorageException e) {
+            LOGGER.warn("Failed to load queued commands", e);
+        }
+    }
+
+    public long getSkippedQueries() {
+        return skippedQueries.get();
     }
 
     public QueuedCommand sendCommand(Command command) throws Exception {
@@ -105,6 +132,7 @@ public class CommandsManager implements BroadcastInterface {
                 } else if (!command.getBoolean(Command.KEY_NO_QUEUE)) {
                     QueuedCommand queuedCommand = QueuedCommand.fromCommand(command);
                     queuedCommand.setId(storage.addObject(queuedCommand, new Request(new Columns.Exclude("id"))));
+                    queuedDevices.add(deviceId);
                     broadcastService.updateCommand(true, deviceId);
                     return queuedCommand;
                 } else {
@@ -120,11 +148,18 @@ public class CommandsManager implements BroadcastInterface {
     }
 
     public Collection<Command> readQueuedCommands(long deviceId, int count) {
+        if (queuedDevicesLoaded && !queuedDevices.remove(deviceId)) {
+            skippedQueries.incrementAndGet();
+            return List.of();
+        }
         try {
             var commands = storage.getObjects(QueuedCommand.class, new Request(
                     new Columns.All(),
                     new Condition.Equals("deviceId", deviceId),
                     new Order("id", false, count)));
+            if (commands.size() >= count) {
+                queuedDevices.add(deviceId);
+            }
             Map<Event, Position> events = new HashMap<>();
             for (var command : commands) {
                 storage.removeObject(QueuedCommand.class, new Request(
@@ -137,6 +172,7 @@ public class CommandsManager implements BroadcastInterface {
             notificationManager.updateEvents(events);
             return commands.stream().map(QueuedCommand::toCommand).toList();
         } catch (StorageException e) {
+            queuedDevices.add(deviceId);
             throw new RuntimeException(e);
         }
     }
@@ -144,6 +180,7 @@ public class CommandsManager implements BroadcastInterface {
     @Override
     public void updateCommand(boolean local, long deviceId) {
         if (!local) {
+            queuedDevices.add(deviceId);
             DeviceSession deviceSession = connectionManager.getDeviceSession(deviceId);
             if (deviceSession != null && deviceSession.supportsLiveCommands()) {
                 for (Command command : readQueuedCommands(deviceId)) {
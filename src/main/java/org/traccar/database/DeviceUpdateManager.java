@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.storage.ModelAccessor;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for device columns updated during message processing. Updated columns are merged per device
+ * and written with a single statement per device on a fixed interval. Taking pending columns and writing them happens
+ * under a per-device stripe lock, so an older snapshot can never be written after a newer one. Once stopped, updates
+ * are written immediately.
+ */
+@Singleton
+public class DeviceUpdateManager implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceUpdateManager.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final class Pending {
+
+        private final Device device = new Device();
+        private final Set<String> columns = new LinkedHashSet<>();
+
+        private Pending(long deviceId) {
+            device.setId(deviceId);
+        }
+
+        private void merge(Device source, String... columns) {
+            for (String column : columns) {
+                ModelAccessor.copier(Device.class, column).accept(device, source);
+                this.columns.add(column);
+            }
+        }
+    }
+
+    private final Storage storage;
+    private final long interval;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    private ScheduledExecutorService executor;
+    private volatile boolean stopped;
+
+    @Inject
+    public DeviceUpdateManager(Config config, Storage storage) {
+        this.storage = storage;
+        interval = config.getLong(Keys.DATABASE_DEVICE_UPDATE_INTERVAL);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public void update(Device device, boolean immediate, String... columns) {
+        if (interval <= 0) {
+            write(device, columns);
+            return;
+        }
+        pending.compute(device.getId(), (id, value) -> {
+            if (value == null) {
+                value = new Pending(id);
+            }
+            value.merge(device, columns);
+            return value;
+        });
+        if (immediate || stopped) {
+            flush(device.getId());
+        }
+    }
+
+    public void flush(long deviceId) {
+        Lock lock = locks[Long.hashCode(deviceId) & (LOCK_STRIPES - 1)];
+        lock.lock();
+        try {
+            Pending value = pending.remove(deviceId);
+            if (value != null) {
+                write(value.device, value.columns.toArray(new String[0]));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void flush() {
+        for (long deviceId : pending.keySet()) {
+            flush(deviceId);
+        }
+    }
+
+    private void write(Device device, String... columns) {
+        try {
+            storage.updateObject(device, new Request(
+                    new Columns.Include(columns),
+                    new Condition.Equals("id", device.getId())));
+        } catch (StorageException e) {
+            LOGGER.warn("Update device error", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (interval > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(interval, TimeUnit.MILLISECONDS);
+            executor = null;
+        }
+        flush();
+    }
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Memory mapped ring journal of decoded positions. Each record is a length, a CRC32 checksum and JSON encoded
+ * position. A record is acknowledged once the mapping is forced to disk and committed once processing has finished.
+ * Committed records are marked by negating the length and the space behind the oldest uncommitted record is reused.
+ * When a record does not fit before the end of the file, a wrap marker is written and the record is placed at the
+ * beginning of the data area. The file header stores the offset of the oldest uncommitted record, which is where
+ * recovery starts. Uncommitted records found on startup are passed to the replay consumer.
+ */
+public class IngestJournal implements LifecycleObject, Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestJournal.class);
+
+    private static final int MAGIC = 0x544A524E;
+    private static final int HEAD_OFFSET = Integer.BYTES;
+    private static final int DATA_START = Integer.BYTES * 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int WRAP = Integer.MIN_VALUE;
+
+    private static final class Record {
+        private final AtomicBoolean acknowledged = new AtomicBoolean();
+        private final Runnable acknowledgement;
+        private final int offset;
+        private final int length;
+        private boolean committed;
+
+        private Record(Runnable acknowledgement, int offset, int length) {
+            this.acknowledgement = acknowledgement;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final int size;
+    private final long syncInterval;
+    private final Consumer<List<Position>> replayConsumer;
+
+    private final Map<Position, Record> records = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final List<Record> unsynced = new ArrayList<>();
+    private final Deque<Record> queue = new ArrayDeque<>();
+    private final AtomicLong refused = new AtomicLong();
+    private volatile int pending;
+    private int head;
+    private int tail;
+    private boolean full;
+
+    private FileChannel fileChannel;
+    private MappedByteBuffer buffer;
+    private volatile boolean running;
+    private Thread thread;
+
+    public IngestJournal(
+            Config config, MetricsManager metricsManager, ObjectMapper objectMapper,
+            Consumer<List<Position>> replayConsumer) {
+        this.objectMapper = objectMapper;
+        this.replayConsumer = replayConsumer;
+        path = Path.of(config.getString(Keys.SERVER_JOURNAL_PATH));
+        size = config.getInteger(Keys.SERVER_JOURNAL_SIZE);
+        syncInterval = config.getLong(Keys.SERVER_JOURNAL_SYNC_INTERVAL);
+        metricsManager.gauge("traccar_journal_pending", "Uncommitted journal records", () -> pending);
+        metricsManager.gauge("traccar_journal_refused", "Positions not journaled because the journal was full",
+                refused::get);
+    }
+
+    public long getRefused() {
+        return refused.get();
+    }
+
+    /**
+     * Writes position to the journal. Returns false if the position could not be journaled, in which case the
+     * acknowledgement is never called and the caller should acknowledge after processing as usual.
+     */
+    public boolean append(Position position, Runnable acknowledgement) {
+        if (records.containsKey(position)) {
+            return true;
+        }
+        byte[] data;
+        try {
+            data = objectMapper.writeValueAsBytes(position);
+        } catch (IOException e) {
+            LOGGER.warn("Journal encoding error", e);
+            return false;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(data);
+
+        Record record;
+        synchronized (this) {
+            if (!running) {
+                return false;
+            }
+            int start = reserve(HEADER_SIZE + data.length + Integer.BYTES);
+            if (start < 0) {
+                refused.incrementAndGet();
+                if (!full) {
+                    full = true;
+                    LOGGER.warn("Journal is full with {} uncommitted records, acknowledging after processing", pending);
+                }
+                return false;
+            }
+            full = false;
+            record = new Record(acknowledgement, start, data.length);
+            buffer.putInt(start + Integer.BYTES, (int) checksum.getValue());
+            buffer.put(start + HEADER_SIZE, data);
+            int end = start + HEADER_SIZE + data.length;
+            buffer.putInt(end, 0);
+            buffer.putInt(start, data.length);
+            if (start < tail) {
+                buffer.putInt(tail, WRAP);
+            }
+            tail = end;
+            queue.addLast(record);
+            pending = queue.size();
+            records.put(position, record);
+            if (syncInterval > 0) {
+                unsynced.add(record);
+                if (unsynced.size() == 1) {
+                    notifyAll();
+                }
+                return true;
+            }
+            buffer.force();
+        }
+        acknowledge(record);
+        return true;
+    }
+
+    /**
+     * Marks position as processed. Returns true if the caller still has to send the acknowledgement, either because
+     * the position was not journaled or because it was not synced yet.
+     */
+    public boolean commit(Position position) {
+        Record record = records.remove(position);
+        if (record == null) {
+            return true;
+        }
+        synchronized (this) {
+            buffer.putInt(record.offset, -record.length);
+            record.committed = true;
+            while (!queue.isEmpty() && queue.peekFirst().committed) {
+                queue.removeFirst();
+            }
+            pending = queue.size();
+            if (queue.isEmpty()) {
+                reset();
+            } else {
+                head = queue.peekFirst().offset;
+                buffer.putInt(HEAD_OFFSET, head);
+            }
+        }
+        return record.acknowledged.compareAndSet(false, true);
+    }
+
+    /**
+     * Returns offset where a record of the given size, including the trailing terminator, can be written or -1 if
+     * there is not enough space in front of the oldest uncommitted record.
+     */
+    private int reserve(int required) {
+        if (tail >= head) {
+            if (size - tail >= required) {
+                return tail;
+            }
+            if (head - DATA_START >= required && size - tail >= Integer.BYTES) {
+                return DATA_START;
+            }
+            return -1;
+        }
+        return head - tail >= required ? tail : -1;
+    }
+
+    private void reset() {
+        head = DATA_START;
+        tail = DATA_START;
+        buffer.putInt(DATA_START, 0);
+        buffer.putInt(HEAD_OFFSET, head);
+    }
+
+    private void acknowledge(Record record) {
+        if (record.acknowledged.compareAndSet(false, true)) {
+            record.acknowledgement.run();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            List<Record> synced;
+            synchronized (this) {
+                try {
+                    while (running && unsynced.isEmpty()) {
+                        wait();
+                    }
+                    wait(syncInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                buffer.force();
+                synced = new ArrayList<>(unsynced);
+                unsynced.clear();
+            }
+            synced.forEach(this::acknowledge);
+        }
+    }
+
+    private List<Position> recover() {
+        List<Position> positions = new ArrayList<>();
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            reset();
+            return positions;
+        }
+        int offset = buffer.getInt(HEAD_OFFSET);
+        if (offset < DATA_START || offset > size - Integer.BYTES) {
+            LOGGER.warn("Journal head offset {} is invalid", offset);
+            reset();
+            return positions;
+        }
+        int start = offset;
+        boolean wrapped = false;
+        while (size - offset >= Integer.BYTES && (!wrapped || offset < start)) {
+            int length = buffer.getInt(offset);
+            if (length == WRAP && !wrapped) {
+                wrapped = true;
+                offset = DATA_START;
+                continue;
+            }
+            if (length == 0 || length == WRAP || Math.abs(length) > size - offset - HEADER_SIZE - Integer.BYTES) {
+                break;
+            }
+            if (length < 0) {
+                offset += HEADER_SIZE - length;
+                continue;
+            }
+            byte[] data = new byte[length];
+            buffer.get(offset + HEADER_SIZE, data);
+            CRC32 checksum = new CRC32();
+            checksum.update(data);
+            if ((int) checksum.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                LOGGER.warn("Journal checksum mismatch at offset {}", offset);
+                break;
+            }
+            Record record = new Record(null, offset, length);
+            try {
+                Position position = objectMapper.readValue(data, Position.class);
+                record.acknowledged.set(true);
+                records.put(position, record);
+                positions.add(position);
+            } catch (IOException e) {
+                LOGGER.warn("Journal decoding error", e);
+                buffer.putInt(offset, -length);
+                record.committed = true;
+            }
+            queue.addLast(record);
+            offset += HEADER_SIZE + length;
+        }
+        while (!queue.isEmpty() && queue.peekFirst().committed) {
+            queue.removeFirst();
+        }
+        pending = queue.size();
+        if (queue.isEmpty()) {
+            reset();
+        } else {
+            head = queue.peekFirst().offset;
+            tail = offset;
+            buffer.putInt(tail, 0);
+            buffer.putInt(HEAD_OFFSET, head);
+        }
+        return positions;
+    }
+
+    @Override
+    public void start() throws IOException {
+        fileChannel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        List<Position> positions;
+        synchronized (this) {
+            positions = recover();
+            running = true;
+        }
+        if (syncInterval > 0) {
+            thread = new Thread(this, "ingest-journal");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        if (!positions.isEmpty()) {
+            LOGGER.info("Replaying {} journaled positions", positions.size());
+            replayConsumer.accept(positions);
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        if (thread != null) {
+            thread.join();
+            thread = null;
+        }
+        synchronized (this) {
+            buffer.force();
+        }
+        fileChannel.close();
+    }
+
+}
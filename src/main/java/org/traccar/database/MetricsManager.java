@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import jakarta.inject.Singleton;
+import org.traccar.helper.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+@Singleton
+public class MetricsManager {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private record Series(String name, String label, String value) implements Comparable<Series> {
+
+        private String labels(String extra) {
+            StringBuilder result = new StringBuilder();
+            if (label != null) {
+                result.append(label).append("=\"").append(value).append('"');
+            }
+            if (extra != null) {
+                if (!result.isEmpty()) {
+                    result.append(',');
+                }
+                result.append(extra);
+            }
+            return result.isEmpty() ? "" : "{" + result + "}";
+        }
+
+        private String key() {
+            return label != null ? name + "." + value : name;
+        }
+
+        @Override
+        public int compareTo(Series other) {
+            return key().compareTo(other.key());
+        }
+    }
+
+    private final Map<Series, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<Series, Supplier<Number>> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, String> descriptions = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(String name, String description) {
+        return histogram(name, description, null, null);
+    }
+
+    public LatencyHistogram histogram(String name, String description, String label, String value) {
+        descriptions.putIfAbsent(name, description);
+        return histograms.computeIfAbsent(new Series(name, label, value), key -> new LatencyHistogram());
+    }
+
+    public void register(String name, String description, LatencyHistogram histogram) {
+        descriptions.putIfAbsent(name, description);
+        histograms.put(new Series(name, null, null), histogram);
+    }
+
+    public void gauge(String name, String description, Supplier<Number> supplier) {
+        gauge(name, description, null, null, supplier);
+    }
+
+    public void gauge(String name, String description, String label, String value, Supplier<Number> supplier) {
+        descriptions.putIfAbsent(name, description);
+        gauges.put(new Series(name, label, value), supplier);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        histograms.forEach((series, histogram) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", histogram.getCount());
+            values.put("sum", histogram.getSum());
+            for (double quantile : QUANTILES) {
+                values.put("p" + String.valueOf(quantile * 100).replace(".0", ""), histogram.getQuantile(quantile));
+            }
+            result.put(series.key(), values);
+        });
+        gauges.forEach((series, supplier) -> result.put(series.key(), supplier.get()));
+        return result;
+    }
+
+    public String formatPrometheus() {
+        StringBuilder result = new StringBuilder();
+        String previous = null;
+        for (var entry : histograms.entrySet()) {
+            Series series = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            if (!series.name().equals(previous)) {
+                appendHeader(result, series.name(), "summary");
+                previous = series.name();
+            }
+            for (double quantile : QUANTILES) {
+                result.append(series.name()).append(series.labels("quantile=\"" + quantile + "\""));
+                result.append(' ').append(histogram.getQuantile(quantile)).append('\n');
+            }
+            result.append(series.name()).append("_sum").append(series.labels(null));
+            result.append(' ').append(histogram.getSum()).append('\n');
+            result.append(series.name()).append("_count").append(series.labels(null));
+            result.append(' ').append(histogram.getCount()).append('\n');
+        }
+        previous = null;
+        for (var entry : gauges.entrySet()) {
+            Series series = entry.getKey();
+            if (!series.name().equals(previous)) {
+                appendHeader(result, series.name(), "gauge");
+                previous = series.name();
+            }
+            result.append(series.name()).append(series.labels(null));
+            result.append(' ').append(entry.getValue().get()).append('\n');
+        }
+        return result.toString();
+    }
+
+    private void appendHeader(StringBuilder result, String name, String type) {
+        String description = descriptions.get(name);
+        if (description != null) {
+            result.append("# HELP ").append(name).append(' ').append(description).append('\n');
+        }
+        result.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.handler.BasePositionHandler;
+import org.traccar.model.Position;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PositionBatchWriter implements LifecycleObject, Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PositionBatchWriter.class);
+
+    private record Entry(Position position, BasePositionHandler.Callback callback) {
+    }
+
+    private final Storage storage;
+    private final StatisticsManager statisticsManager;
+    private final int batchSize;
+    private final long delay;
+    private final BlockingQueue<Entry> queue;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public PositionBatchWriter(Config config, Storage storage, StatisticsManager statisticsManager) {
+        this.storage = storage;
+        this.statisticsManager = statisticsManager;
+        batchSize = config.getInteger(Keys.DATABASE_BATCH_SIZE);
+        delay = config.getLong(Keys.DATABASE_BATCH_DELAY);
+        queue = new ArrayBlockingQueue<>(config.getInteger(Keys.DATABASE_BATCH_QUEUE));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public void write(Position position, BasePositionHandler.Callback callback) {
+        Entry entry = new Entry(position, callback);
+        if (!running || !queue.offer(entry)) {
+            store(List.of(entry));
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(delay, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        long remaining = deadline - System.nanoTime();
+                        Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                store(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void store(List<Entry> entries) {
+        try {
+            List<Long> ids = storage.addObjects(
+                    entries.stream().map(Entry::position).toList(), new Request(new Columns.Exclude("id")));
+            if (ids.size() != entries.size()) {
+                LOGGER.warn("Generated keys mismatch, expected {} received {}", entries.size(), ids.size());
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                Position position = entries.get(i).position();
+                if (i < ids.size()) {
+                    position.setId(ids.get(i));
+                }
+                statisticsManager.registerMessageStored(position.getDeviceId(), position.getProtocol());
+            }
+        } catch (Exception error) {
+            LOGGER.warn("Failed to store positions", error);
+        }
+        for (Entry entry : entries) {
+            entry.callback().processed(false);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this, "position-batch-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+            thread = null;
+        }
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            store(remaining);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,8 +31,23 @@ public class GeofenceCircle extends GeofenceGeometry {
         centerLatitude = decoded.latitude;
         centerLongitude = decoded.longitude;
         radius = decoded.radius;
-        setMin(new Coordinate(centerLatitude - radius, centerLongitude - radius));
-        setMax(new Coordinate(centerLatitude + radius, centerLongitude + radius));
+        calculateCircleBoundary();
+    }
+
+    private void calculateCircleBoundary() {
+        double latitudeDelta = DistanceCalculator.getLatitudeDelta(radius * 1.001);
+        double extremeLatitude = Math.abs(centerLatitude) + latitudeDelta;
+        double minLongitude = -180;
+        double maxLongitude = 180;
+        if (extremeLatitude < 90) {
+            double longitudeDelta = DistanceCalculator.getLongitudeDelta(radius * 1.001, extremeLatitude);
+            if (centerLongitude - longitudeDelta >= -180 && centerLongitude + longitudeDelta <= 180) {
+                minLongitude = centerLongitude - longitudeDelta;
+                maxLongitude = centerLongitude + longitudeDelta;
+            }
+        }
+        setMin(new Coordinate(centerLatitude - latitudeDelta, minLongitude));
+        setMax(new Coordinate(centerLatitude + latitudeDelta, maxLongitude));
     }
 
     @Override
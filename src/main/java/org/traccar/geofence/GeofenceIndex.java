@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geofence;
+
+import org.traccar.model.Geofence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Packed R-tree (sort-tile-recursive) over geofence bounding boxes. Queries test only geofences whose box contains
+ * the point; shapes without a usable box, such as polygons crossing the antimeridian, are always tested.
+ */
+public final class GeofenceIndex {
+
+    private static final int NODE_CAPACITY = 8;
+
+    private static final class Node {
+        private final double minLat;
+        private final double minLon;
+        private final double maxLat;
+        private final double maxLon;
+        private final Node[] children;
+        private final Geofence geofence;
+
+        Node(double minLat, double minLon, double maxLat, double maxLon, Node[] children, Geofence geofence) {
+            this.minLat = minLat;
+            this.minLon = minLon;
+            this.maxLat = maxLat;
+            this.maxLon = maxLon;
+            this.children = children;
+            this.geofence = geofence;
+        }
+
+        boolean contains(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+        }
+
+        double centerLat() {
+            return (minLat + maxLat) / 2;
+        }
+
+        double centerLon() {
+            return (minLon + maxLon) / 2;
+        }
+    }
+
+    private final Node root;
+    private final Geofence[] unbounded;
+
+    public GeofenceIndex(Collection<Geofence> geofences) {
+        List<Node> leaves = new ArrayList<>(geofences.size());
+        List<Geofence> other = new ArrayList<>();
+        for (Geofence geofence : geofences) {
+            GeofenceGeometry geometry;
+            try {
+                geometry = geofence.getGeometry();
+            } catch (RuntimeException e) {
+                other.add(geofence);
+                continue;
+            }
+            var min = geometry.getMin();
+            var max = geometry.getMax();
+            if (min == null || max == null || min.lon() < 0 && max.lon() >= 0 && max.lon() - min.lon() > 180) {
+                other.add(geofence);
+            } else {
+                leaves.add(new Node(min.lat(), min.lon(), max.lat(), max.lon(), null, geofence));
+            }
+        }
+        root = leaves.isEmpty() ? null : pack(leaves);
+        unbounded = other.toArray(new Geofence[0]);
+    }
+
+    private static Node pack(List<Node> nodes) {
+        while (nodes.size() > 1) {
+            int parentCount = (nodes.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+            int sliceSize = sliceCount * NODE_CAPACITY;
+            nodes.sort(Comparator.comparingDouble(Node::centerLon));
+            List<Node> parents = new ArrayList<>(parentCount);
+            for (int sliceStart = 0; sliceStart < nodes.size(); sliceStart += sliceSize) {
+                List<Node> slice = nodes.subList(sliceStart, Math.min(sliceStart + sliceSize, nodes.size()));
+                slice.sort(Comparator.comparingDouble(Node::centerLat));
+                for (int start = 0; start < slice.size(); start += NODE_CAPACITY) {
+                    parents.add(createParent(slice.subList(start, Math.min(start + NODE_CAPACITY, slice.size()))));
+                }
+            }
+            nodes = parents;
+        }
+        return nodes.get(0);
+    }
+
+    private static Node createParent(List<Node> children) {
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            minLat = Math.min(minLat, child.minLat);
+            minLon = Math.min(minLon, child.minLon);
+            maxLat = Math.max(maxLat, child.maxLat);
+            maxLon = Math.max(maxLon, child.maxLon);
+        }
+        return new Node(minLat, minLon, maxLat, maxLon, children.toArray(new Node[0]), null);
+    }
+
+    /**
+     * Geofences containing the point, using the exact shape test on indexed candidates.
+     */
+    public List<Geofence> getGeofences(double latitude, double longitude) {
+        List<Geofence> result = new ArrayList<>();
+        if (root != null && root.contains(latitude, longitude)) {
+            Node[] stack = new Node[16];
+            int size = 0;
+            stack[size++] = root;
+            while (size > 0) {
+                Node node = stack[--size];
+                if (node.geofence != null) {
+                    if (node.geofence.getGeometry().containsPoint(latitude, longitude)) {
+                        result.add(node.geofence);
+                    }
+                } else {
+                    for (Node child : node.children) {
+                        if (child.contains(latitude, longitude)) {
+                            if (size == stack.length) {
+                                stack = Arrays.copyOf(stack, size * 2);
+                            }
+                            stack[size++] = child;
+                        }
+                    }
+                }
+            }
+        }
+        for (Geofence geofence : unbounded) {
+            if (geofence.getGeometry().containsPoint(latitude, longitude)) {
+                result.add(geofence);
+            }
+        }
+        return result;
+    }
+
+}
@@ -29,6 +29,14 @@ public abstract class BasePositionHandler {
 
     public abstract void onPosition(Position position, Callback callback);
 
+    /**
+     * Blocking handlers perform synchronous database or network calls and can be executed outside of the network
+     * event loop.
+     */
+    public boolean isBlocking() {
+        return false;
+    }
+
     public void handlePosition(Position position, Callback callback) {
         try {
             onPosition(position, callback);
@@ -17,8 +17,7 @@
 package org.traccar.handler.events;
 
 import jakarta.inject.Inject;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.traccar.database.DeviceUpdateManager;
 import org.traccar.helper.model.AttributeUtil;
 import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Device;
@@ -27,23 +26,16 @@ import org.traccar.reports.common.TripsConfig;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.session.state.MotionProcessor;
 import org.traccar.session.state.MotionState;
-import org.traccar.storage.Storage;
-import org.traccar.storage.StorageException;
-import org.traccar.storage.query.Columns;
-import org.traccar.storage.query.Condition;
-import org.traccar.storage.query.Request;
 
 public class MotionEventHandler extends BaseEventHandler {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(MotionEventHandler.class);
-
     private final CacheManager cacheManager;
-    private final Storage storage;
+    private final DeviceUpdateManager deviceUpdateManager;
 
     @Inject
-    public MotionEventHandler(CacheManager cacheManager, Storage storage) {
+    public MotionEventHandler(CacheManager cacheManager, DeviceUpdateManager deviceUpdateManager) {
         this.cacheManager = cacheManager;
-        this.storage = storage;
+        this.deviceUpdateManager = deviceUpdateManager;
     }
 
     @Override
@@ -61,14 +53,9 @@ public class MotionEventHandler extends BaseEventHandler {
         MotionProcessor.updateState(state, last, position, position.getBoolean(Position.KEY_MOTION), tripsConfig);
         if (state.isChanged()) {
             state.toDevice(device);
-            try {
-                storage.updateObject(device, new Request(
-                        new Columns.Include(
-                                "motionStreak", "motionState", "motionPositionId", "motionTime", "motionDistance"),
-                        new Condition.Equals("id", device.getId())));
-            } catch (StorageException e) {
-                LOGGER.warn("Update device motion error", e);
-            }
+            deviceUpdateManager.update(
+                    device, false,
+                    "motionStreak", "motionState", "motionPositionId", "motionTime", "motionDistance");
         }
         if (state.getEvent() != null) {
             callback.eventDetected(state.getEvent());
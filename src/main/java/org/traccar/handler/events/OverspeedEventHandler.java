@@ -17,10 +17,9 @@
 package org.traccar.handler.events;
 
 import jakarta.inject.Inject;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.DeviceUpdateManager;
 import org.traccar.helper.model.AttributeUtil;
 import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Device;
@@ -29,27 +28,20 @@ import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.session.state.OverspeedProcessor;
 import org.traccar.session.state.OverspeedState;
-import org.traccar.storage.Storage;
-import org.traccar.storage.StorageException;
-import org.traccar.storage.query.Columns;
-import org.traccar.storage.query.Condition;
-import org.traccar.storage.query.Request;
 
 public class OverspeedEventHandler extends BaseEventHandler {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(OverspeedEventHandler.class);
-
     private final CacheManager cacheManager;
-    private final Storage storage;
+    private final DeviceUpdateManager deviceUpdateManager;
 
     private final long minimalDuration;
     private final boolean preferLowest;
     private final double multiplier;
 
     @Inject
-    public OverspeedEventHandler(Config config, CacheManager cacheManager, Storage storage) {
+    public OverspeedEventHandler(Config config, CacheManager cacheManager, DeviceUpdateManager deviceUpdateManager) {
         this.cacheManager = cacheManager;
-        this.storage = storage;
+        this.deviceUpdateManager = deviceUpdateManager;
         minimalDuration = config.getLong(Keys.EVENT_OVERSPEED_MINIMAL_DURATION) * 1000;
         preferLowest = config.getBoolean(Keys.EVENT_OVERSPEED_PREFER_LOWEST);
         multiplier = config.getDouble(Keys.EVENT_OVERSPEED_THRESHOLD_MULTIPLIER);
@@ -103,13 +95,7 @@ public class OverspeedEventHandler extends BaseEventHandler {
         OverspeedProcessor.updateState(state, position, speedLimit, multiplier, minimalDuration, overspeedGeofenceId);
         if (state.isChanged()) {
             state.toDevice(device);
-            try {
-                storage.updateObject(device, new Request(
-                        new Columns.Include("overspeedState", "overspeedTime", "overspeedGeofenceId"),
-                        new Condition.Equals("id", device.getId())));
-            } catch (StorageException e) {
-                LOGGER.warn("Update device overspeed error", e);
-            }
+            deviceUpdateManager.update(device, false, "overspeedState", "overspeedTime", "overspeedGeofenceId");
         }
         if (state.getEvent() != null) {
             callback.eventDetected(state.getEvent());
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.handler.network;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import org.traccar.database.BackpressureManager;
+
+public class BackpressureHandler extends ChannelInboundHandlerAdapter {
+
+    private final BackpressureManager backpressureManager;
+    private final boolean datagram;
+
+    public BackpressureHandler(BackpressureManager backpressureManager, boolean datagram) {
+        this.backpressureManager = backpressureManager;
+        this.datagram = datagram;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (backpressureManager.admit(ctx.channel(), datagram)) {
+            super.channelRead(ctx, msg);
+        } else {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        super.channelInactive(ctx);
+        backpressureManager.channelClosed(ctx.channel());
+    }
+
+}
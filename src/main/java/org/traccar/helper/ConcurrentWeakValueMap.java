@@ -1,5 +1,5 @@
 /*
- * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2025 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,14 @@ public final class ConcurrentWeakValueMap<K, V> {
         map.put(key, new WeakValue<>(key, value, queue));
     }
 
+    public V putIfAbsent(K key, V value) {
+        expunge();
+        var created = new WeakValue<>(key, value, queue);
+        var reference = map.compute(key, (k, existing) ->
+                existing != null && existing.get() != null ? existing : created);
+        return reference == created ? null : reference.get();
+    }
+
     public V remove(K key) {
         expunge();
         WeakValue<K, V> reference = map.remove(key);
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects startup phase durations. Phases run inside Guice providers before any metrics are available, so the
+ * values are kept statically until the server has started.
+ */
+public final class StartupTimer {
+
+    private static final Map<String, Long> PHASES = new LinkedHashMap<>();
+
+    private StartupTimer() {
+    }
+
+    public static synchronized void record(String phase, long startNanos) {
+        PHASES.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    public static synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(PHASES);
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,8 @@ import org.traccar.storage.query.Request;
 
 public final class AttributeUtil {
 
+    private static final Object NULL_VALUE = new Object();
+
     private AttributeUtil() {
     }
 
@@ -42,12 +44,34 @@ public final class AttributeUtil {
         Config getConfig();
     }
 
+    /**
+     * Resolves the key for a cached device once and serves later lookups from the device attribute table.
+     */
+    @SuppressWarnings("unchecked")
     public static <T> T lookup(CacheManager cacheManager, ConfigKey<T> key, long deviceId) {
-        return lookup(new CacheProvider(cacheManager, deviceId), key);
+        int index = key.getIndex();
+        Object[] table = cacheManager.getAttributeTable(deviceId);
+        if (table == null || index >= table.length) {
+            return resolve(new CacheProvider(cacheManager, deviceId), key);
+        }
+        Object value = table[index];
+        if (value == null) {
+            T result = resolve(new CacheProvider(cacheManager, deviceId), key);
+            table[index] = result != null ? result : NULL_VALUE;
+            return result;
+        }
+        return value != NULL_VALUE ? (T) value : null;
     }
 
-    @SuppressWarnings({ "deprecation", "unchecked" })
     public static <T> T lookup(Provider provider, ConfigKey<T> key) {
+        if (provider instanceof CacheProvider cacheProvider) {
+            return lookup(cacheProvider.cacheManager, key, cacheProvider.deviceId);
+        }
+        return resolve(provider, key);
+    }
+
+    @SuppressWarnings({ "deprecation", "unchecked" })
+    private static <T> T resolve(Provider provider, ConfigKey<T> key) {
         Device device = provider.getDevice();
         Object result = device.getAttributes().get(key.getKey());
         long groupId = device.getGroupId();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,15 @@
 package org.traccar.helper.model;
 
 import org.traccar.model.Device;
-import org.traccar.model.Group;
-import org.traccar.model.User;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
-import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Objects;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public final class DeviceUtil {
@@ -41,39 +38,20 @@ public final class DeviceUtil {
 
 
     public static Collection<Device> getAccessibleDevices(
-            Storage storage, long userId,
+            Storage storage, PermissionIndex permissionIndex, long userId,
             Collection<Long> deviceIds, Collection<Long> groupIds) throws StorageException {
 
-        var devices = storage.getObjects(Device.class, new Request(
-                new Columns.All(),
-                new Condition.Permission(User.class, userId, Device.class)));
-        var deviceById = devices.stream()
-                .collect(Collectors.toUnmodifiableMap(Device::getId, x -> x));
-        var devicesByGroup = devices.stream()
-                .filter(x -> x.getGroupId() > 0)
-                .collect(Collectors.groupingBy(Device::getGroupId));
-
-        var groups = storage.getObjects(Group.class, new Request(
-                new Columns.All(),
-                new Condition.Permission(User.class, userId, Group.class)));
-        var groupsByGroup = groups.stream()
-                .filter(x -> x.getGroupId() > 0)
-                .collect(Collectors.groupingBy(Group::getGroupId));
-
-        var results = deviceIds.stream()
-                .map(deviceById::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        var groupQueue = new LinkedList<>(groupIds);
-        while (!groupQueue.isEmpty()) {
-            long groupId = groupQueue.pop();
-            results.addAll(devicesByGroup.getOrDefault(groupId, Collections.emptyList()));
-            groupQueue.addAll(groupsByGroup.getOrDefault(groupId, Collections.emptyList())
-                    .stream().map(Group::getId).toList());
+        var accessibleIds = permissionIndex.getUserDevices(userId);
+        Set<Long> results = deviceIds.stream()
+                .filter(accessibleIds::contains)
+                .collect(Collectors.toCollection(HashSet::new));
+        for (long groupId : groupIds) {
+            permissionIndex.getGroupDevices(groupId).stream()
+                    .filter(accessibleIds::contains)
+                    .forEach(results::add);
         }
 
-        return results;
+        return storage.getObjectsByIds(Device.class, results);
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,26 +15,39 @@
  */
 package org.traccar.helper.model;
 
+import org.traccar.geofence.GeofenceIndex;
 import org.traccar.model.Geofence;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 public final class GeofenceUtil {
 
+    private static final Map<Set<Geofence>, GeofenceIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
     private GeofenceUtil() {
     }
 
+    /**
+     * Spatial index for a geofence set, shared by all devices that resolve to an equal set. This relies on models
+     * using identity equality: sets are only equal when they hold the same cached instances, and an updated geofence
+     * is a new instance, so a stale index is never returned for it. Value equality on models would break that.
+     */
+    public static GeofenceIndex getIndex(Set<Geofence> geofences) {
+        return INDEXES.computeIfAbsent(geofences, GeofenceIndex::new);
+    }
+
     public static List<Long> getCurrentGeofences(CacheManager cacheManager, Position position) {
-        List<Long> result = new ArrayList<>();
-        for (Geofence geofence : cacheManager.getDeviceObjects(position.getDeviceId(), Geofence.class)) {
-            if (geofence.containsPosition(position)) {
-                result.add(geofence.getId());
-            }
-        }
-        return result;
+        GeofenceIndex index = cacheManager.getDeviceObjects(
+                position.getDeviceId(), Geofence.class, GeofenceIndex.class, GeofenceUtil::getIndex);
+        return index.getGeofences(position.getLatitude(), position.getLongitude()).stream()
+                .map(Geofence::getId)
+                .toList();
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -64,7 +64,7 @@ public final class PositionUtil {
 
     public static Stream<Position> getPositionsStream(
             Storage storage, long deviceId, Date from, Date to) throws StorageException {
-        return storage.getObjectsStream(Position.class, new Request(
+        return storage.replica().getObjectsStream(Position.class, new Request(
                 new Columns.All(),
                 new Condition.And(
                         new Condition.Equals("deviceId", deviceId),
@@ -74,7 +74,7 @@ public final class PositionUtil {
 
     public static Position getEdgePosition(
             Storage storage, long deviceId, Date from, Date to, boolean end) throws StorageException {
-        return storage.getObject(Position.class, new Request(
+        return storage.replica().getObject(Position.class, new Request(
                 new Columns.All(),
                 new Condition.And(
                         new Condition.Equals("deviceId", deviceId),
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.CombinedReportItem;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -41,11 +42,13 @@ public class CombinedReportProvider {
 
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final PermissionIndex permissionIndex;
 
     @Inject
-    public CombinedReportProvider(ReportUtils reportUtils, Storage storage) {
+    public CombinedReportProvider(ReportUtils reportUtils, Storage storage, PermissionIndex permissionIndex) {
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.permissionIndex = permissionIndex;
     }
 
     public Collection<CombinedReportItem> getObjects(
@@ -54,14 +57,14 @@ public class CombinedReportProvider {
         reportUtils.checkPeriodLimit(from, to);
 
         ArrayList<CombinedReportItem> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        for (Device device: DeviceUtil.getAccessibleDevices(storage, permissionIndex, userId, deviceIds, groupIds)) {
             CombinedReportItem item = new CombinedReportItem();
             item.setDeviceId(device.getId());
             var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
             item.setRoute(positions.stream()
                     .map(p -> new double[] {p.getLongitude(), p.getLatitude()})
                     .toList());
-            var events = storage.getObjects(Event.class, new Request(
+            var events = storage.replica().getObjects(Event.class, new Request(
                     new Columns.All(),
                     new Condition.And(
                             new Condition.Equals("deviceId", device.getId()),
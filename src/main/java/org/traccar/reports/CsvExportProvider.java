@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -54,7 +55,6 @@ public class CsvExportProvider {
 
         var server = permissionsService.getServer();
         var user = permissionsService.getUser(userId);
-        var positions = PositionUtil.getPositions(storage, deviceId, from, to);
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         dateFormat.setTimeZone(UserUtil.getTimezone(server, user));
@@ -62,10 +62,13 @@ public class CsvExportProvider {
         Geofence geofence = geofenceId == 0 ? null : storage.getObject(Geofence.class, new Request(
                 new Columns.All(), new Condition.Equals("id", geofenceId)));
 
-        var attributes = positions.stream()
-                .filter(position -> geofence == null || geofence.containsPosition(position))
-                .flatMap(position -> position.getAttributes().keySet().stream())
-                .collect(Collectors.toUnmodifiableSet());
+        Set<String> attributes;
+        try (var positions = PositionUtil.getPositionsStream(storage, deviceId, from, to)) {
+            attributes = positions
+                    .filter(position -> geofence == null || geofence.containsPosition(position))
+                    .flatMap(position -> position.getAttributes().keySet().stream())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
 
         var properties = new LinkedHashMap<String, Function<Position, Object>>();
         properties.put("id", Position::getId);
@@ -84,7 +87,8 @@ public class CsvExportProvider {
         properties.put("accuracy", Position::getAccuracy);
         attributes.forEach(key -> properties.put(key, position -> position.getAttributes().get(key)));
 
-        try (PrintWriter writer = new PrintWriter(outputStream)) {
+        try (PrintWriter writer = new PrintWriter(outputStream);
+             var positions = PositionUtil.getPositionsStream(storage, deviceId, from, to)) {
             writer.println(String.join(",", properties.keySet()));
             positions.forEach(position -> writer.println(properties.values().stream()
                     .map(f -> Objects.toString(f.apply(position), ""))
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -28,6 +28,7 @@ import org.traccar.model.Maintenance;
 import org.traccar.model.Position;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -54,16 +55,19 @@ public class EventsReportProvider {
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final PermissionIndex permissionIndex;
 
     @Inject
-    public EventsReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public EventsReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, PermissionIndex permissionIndex) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.permissionIndex = permissionIndex;
     }
 
     private Stream<Event> getEvents(long deviceId, Date from, Date to) throws StorageException {
-        return storage.getObjectsStream(Event.class, new Request(
+        return storage.replica().getObjectsStream(Event.class, new Request(
                 new Columns.All(),
                 new Condition.And(
                         new Condition.Equals("deviceId", deviceId),
@@ -85,7 +89,7 @@ public class EventsReportProvider {
         reportUtils.checkPeriodLimit(from, to);
         boolean all = types.isEmpty() || types.contains(Event.ALL_EVENTS);
 
-        return DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds).stream()
+        return DeviceUtil.getAccessibleDevices(storage, permissionIndex, userId, deviceIds, groupIds).stream()
                 .flatMap(device -> {
                     try {
                         return getEvents(device.getId(), from, to);
@@ -118,7 +122,7 @@ public class EventsReportProvider {
         HashMap<Long, String> geofenceNames = new HashMap<>();
         HashMap<Long, String> maintenanceNames = new HashMap<>();
         HashMap<Long, Position> positions = new HashMap<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        for (Device device: DeviceUtil.getAccessibleDevices(storage, permissionIndex, userId, deviceIds, groupIds)) {
             List<Event> events = new ArrayList<>();
             boolean all = types.isEmpty() || types.contains(Event.ALL_EVENTS);
             try (var unfilteredEvents = getEvents(device.getId(), from, to)) {
@@ -149,7 +153,7 @@ public class EventsReportProvider {
             for (Event event : events) {
                 long positionId = event.getPositionId();
                 if (positionId > 0) {
-                    Position position = storage.getObject(Position.class, new Request(
+                    Position position = storage.replica().getObject(Position.class, new Request(
                             new Columns.All(), new Condition.Equals("id", positionId)));
                     positions.put(positionId, position);
                 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.reports;
 
 import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Device;
+import org.traccar.model.Position;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -28,7 +29,6 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.stream.Collectors;
 
 public class KmlExportProvider {
 
@@ -44,8 +44,6 @@ public class KmlExportProvider {
 
         var device = storage.getObject(Device.class, new Request(
                 new Columns.All(), new Condition.Equals("id", deviceId)));
-        var positions = PositionUtil.getPositions(storage, deviceId, from, to);
-
         var dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
 
         try (PrintWriter writer = new PrintWriter(outputStream)) {
@@ -66,9 +64,16 @@ public class KmlExportProvider {
             writer.print("<tessellate>1</tessellate>");
             writer.print("<altitudeMode>absolute</altitudeMode>");
             writer.print("<coordinates>");
-            writer.print(positions.stream()
-                    .map((p -> String.format("%f,%f,%f", p.getLongitude(), p.getLatitude(), p.getAltitude())))
-                    .collect(Collectors.joining(" ")));
+            try (var positions = PositionUtil.getPositionsStream(storage, deviceId, from, to)) {
+                var iterator = positions.iterator();
+                while (iterator.hasNext()) {
+                    Position p = iterator.next();
+                    writer.print(String.format("%f,%f,%f", p.getLongitude(), p.getLatitude(), p.getAltitude()));
+                    if (iterator.hasNext()) {
+                        writer.print(' ');
+                    }
+                }
+            }
             writer.print("</coordinates>");
             writer.print("</LineString>");
             writer.print("</Placemark>");
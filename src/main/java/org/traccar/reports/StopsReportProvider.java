@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2017 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -25,6 +25,7 @@ import org.traccar.model.Group;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.reports.model.StopReportItem;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -47,12 +48,15 @@ public class StopsReportProvider {
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final PermissionIndex permissionIndex;
 
     @Inject
-    public StopsReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public StopsReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, PermissionIndex permissionIndex) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.permissionIndex = permissionIndex;
     }
 
     public Collection<StopReportItem> getObjects(
@@ -61,7 +65,7 @@ public class StopsReportProvider {
         reportUtils.checkPeriodLimit(from, to);
 
         ArrayList<StopReportItem> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        for (Device device: DeviceUtil.getAccessibleDevices(storage, permissionIndex, userId, deviceIds, groupIds)) {
             result.addAll(reportUtils.detectTripsAndStops(device, from, to, StopReportItem.class));
         }
         return result;
@@ -74,7 +78,7 @@ public class StopsReportProvider {
 
         ArrayList<DeviceReportSection> devicesStops = new ArrayList<>();
         ArrayList<String> sheetNames = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        for (Device device: DeviceUtil.getAccessibleDevices(storage, permissionIndex, userId, deviceIds, groupIds)) {
             Collection<StopReportItem> stops = reportUtils.detectTripsAndStops(device, from, to, StopReportItem.class);
             DeviceReportSection deviceStops = new DeviceReportSection();
             deviceStops.setDeviceName(device.getName());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -360,7 +360,7 @@ public class ReportUtils {
         boolean ignoreOdometer = tripsConfig.getIgnoreOdometer();
         boolean trips = reportClass.equals(TripReportItem.class);
 
-        var events = storage.getObjects(Event.class, new Request(
+        var events = storage.replica().getObjects(Event.class, new Request(
                 new Columns.All(),
                 Condition.merge(List.of(
                         new Condition.Equals("deviceId", device.getId()),
@@ -369,6 +369,11 @@ public class ReportUtils {
                                 new Condition.Equals("type", Event.TYPE_DEVICE_MOVING),
                                 new Condition.Equals("type", Event.TYPE_DEVICE_STOPPED)))),
                 new Order("eventTime")));
+        Map<Long, Position> positions = new HashMap<>();
+        for (Position position : storage.replica().getObjectsByIds(
+                Position.class, events.stream().map(Event::getPositionId).toList())) {
+            positions.put(position.getId(), position);
+        }
 
         Position startPosition = PositionUtil.getEdgePosition(storage, device.getId(), from, to, false);
         if (startPosition != null && !startPosition.getBoolean(Position.KEY_MOTION)) {
@@ -378,11 +383,9 @@ public class ReportUtils {
         for (Event event : events) {
             boolean motion = event.getType().equals(Event.TYPE_DEVICE_MOVING);
             if (motion == trips) {
-                startPosition = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", event.getPositionId())));
+                startPosition = positions.get(event.getPositionId());
             } else if (startPosition != null) {
-                Position endPosition = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", event.getPositionId())));
+                Position endPosition = positions.get(event.getPositionId());
                 if (endPosition != null) {
                     result.add(calculateTripOrStop(
                             device, startPosition, endPosition, 0, ignoreOdometer, reportClass));
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.storage.AttributeCodec;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts legacy JSON position attributes to the binary format in small batches, walking the table by id. The JSON
+ * column is left unchanged, so converted rows stay readable by external tools until it is cleared explicitly. Rows
+ * inserted with binary attributes enabled never have the JSON column populated.
+ */
+public class TaskAttributeMigration extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskAttributeMigration.class);
+
+    private static final long CHECK_PERIOD_MINUTES = 1;
+    private static final long RUN_LIMIT_SECONDS = 30;
+    private static final int BATCH_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+
+    private long lastId;
+    private long migrated;
+    private boolean finished;
+
+    @Inject
+    public TaskAttributeMigration(Config config, ObjectMapper objectMapper, Injector injector) {
+        this.objectMapper = objectMapper;
+        dataSource = config.getBoolean(Keys.DATABASE_BINARY_ATTRIBUTES) && !config.getBoolean(Keys.DATABASE_MEMORY)
+                ? injector.getInstance(DataSource.class) : null;
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (dataSource != null) {
+            executor.scheduleWithFixedDelay(this, CHECK_PERIOD_MINUTES, CHECK_PERIOD_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (finished) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(RUN_LIMIT_SECONDS);
+        try (Connection connection = dataSource.getConnection()) {
+            while (System.nanoTime() < deadline) {
+                if (migrateBatch(connection) == 0) {
+                    finished = true;
+                    LOGGER.info("Position attributes migration finished, {} rows converted", migrated);
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Position attributes migration error", e);
+        }
+    }
+
+    private int migrateBatch(Connection connection) throws SQLException {
+        int count = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, attributes FROM tc_positions WHERE id > ? AND attributesdata IS NULL "
+                + "AND attributes IS NOT NULL ORDER BY id");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE tc_positions SET attributesdata = ? WHERE id = ?")) {
+            select.setMaxRows(BATCH_SIZE);
+            select.setLong(1, lastId);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    long id = resultSet.getLong(1);
+                    String attributes = resultSet.getString(2);
+                    lastId = id;
+                    count += 1;
+                    if (attributes.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        update.setBytes(1, AttributeCodec.encode(
+                                objectMapper.readValue(attributes, new TypeReference<LinkedHashMap<String, Object>>() {
+                                }), objectMapper));
+                    } catch (IOException e) {
+                        LOGGER.warn("Skipping position {} with invalid attributes", id);
+                        continue;
+                    }
+                    update.setLong(2, id);
+                    update.addBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        migrated += count;
+        return count;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.Storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes memory storage snapshot. A final snapshot is written when the server stops.
+ */
+@Singleton
+public class TaskMemorySnapshot extends SingleScheduleTask implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskMemorySnapshot.class);
+
+    private static final long CHECK_PERIOD_MINUTES = 5;
+
+    private final Storage storage;
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    @Inject
+    public TaskMemorySnapshot(Config config, Storage storage, ObjectMapper objectMapper) {
+        this.storage = storage;
+        this.objectMapper = objectMapper;
+        String snapshot = config.getString(Keys.DATABASE_MEMORY_SNAPSHOT);
+        path = snapshot != null ? Paths.get(snapshot) : null;
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (path != null && storage instanceof MemoryStorage) {
+            executor.scheduleAtFixedRate(this, CHECK_PERIOD_MINUTES, CHECK_PERIOD_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        try {
+            ((MemoryStorage) storage).writeSnapshot(path, objectMapper);
+        } catch (IOException e) {
+            LOGGER.warn("Memory storage snapshot error", e);
+        }
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        if (path != null && storage instanceof MemoryStorage) {
+            run();
+            LOGGER.info("Memory storage snapshot written to {}", path);
+        }
+    }
+
+}
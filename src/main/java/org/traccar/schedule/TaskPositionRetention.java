@@ -0,0 +1,427 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import com.google.inject.Injector;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.model.AttributeUtil;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.Position;
+import org.traccar.model.Server;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains monthly partitions of the positions table and removes positions past their retention. Partitions are
+ * dropped as a whole when every device allows it, shorter per-device retention falls back to row deletes. The latest
+ * position of each device is always kept.
+ */
+public class TaskPositionRetention extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskPositionRetention.class);
+
+    private static final long INITIAL_DELAY_MINUTES = 1;
+    private static final long CHECK_PERIOD_HOURS = 24;
+    private static final int MONTHS_AHEAD = 2;
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final String RETAINED_TABLE = "tc_positions_retained";
+
+    private static final Pattern PARTITION_PATTERN = Pattern.compile("p(\\d{6})$");
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private enum Dialect {
+        POSTGRESQL,
+        MYSQL
+    }
+
+    private final Config config;
+    private final Storage storage;
+    private final DataSource dataSource;
+
+    @Inject
+    public TaskPositionRetention(Config config, Storage storage, Injector injector) {
+        this.config = config;
+        this.storage = storage;
+        dataSource = config.getBoolean(Keys.DATABASE_MEMORY) ? null : injector.getInstance(DataSource.class);
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (dataSource != null) {
+            executor.scheduleAtFixedRate(
+                    this, INITIAL_DELAY_MINUTES, TimeUnit.HOURS.toMinutes(CHECK_PERIOD_HOURS), TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            Server server = storage.getObject(Server.class, new Request(new Columns.All()));
+            Map<Long, Group> groups = storage.getObjects(Group.class, new Request(new Columns.All())).stream()
+                    .collect(Collectors.toMap(Group::getId, group -> group));
+
+            int defaultDays = getRetention(server, groups, new Device());
+            Map<Long, Integer> retentions = new HashMap<>();
+            Set<Long> latestPositionIds = new HashSet<>();
+            for (Device device : storage.getObjects(Device.class, new Request(new Columns.All()))) {
+                retentions.put(device.getId(), getRetention(server, groups, device));
+                if (device.getPositionId() > 0) {
+                    latestPositionIds.add(device.getPositionId());
+                }
+            }
+
+            int maxDays = defaultDays;
+            for (int days : retentions.values()) {
+                maxDays = days > 0 && maxDays > 0 ? Math.max(maxDays, days) : 0;
+            }
+
+            boolean partitioned = false;
+            if (config.getBoolean(Keys.DATABASE_PARTITION_POSITIONS)) {
+                try (Connection connection = dataSource.getConnection()) {
+                    Dialect dialect = getDialect(connection);
+                    if (dialect != null && maintainPartitions(connection, dialect)) {
+                        partitioned = true;
+                        if (maxDays > 0) {
+                            dropPartitions(connection, dialect, getCutoff(maxDays));
+                        }
+                    }
+                }
+            }
+
+            if (maxDays > 0 && !partitioned) {
+                removePositions(new Condition.Compare("fixTime", "<", toDate(getCutoff(maxDays))), latestPositionIds);
+            }
+
+            for (var entry : retentions.entrySet()) {
+                int days = entry.getValue();
+                if (days > 0 && days != maxDays) {
+                    removePositions(new Condition.And(
+                            new Condition.Equals("deviceId", entry.getKey()),
+                            new Condition.Compare("fixTime", "<", toDate(getCutoff(days)))), latestPositionIds);
+                }
+            }
+        } catch (StorageException | SQLException e) {
+            LOGGER.warn("Position retention error", e);
+        }
+    }
+
+    /**
+     * Deletes matching positions in id order, in batches, keeping the latest position of every device.
+     */
+    private void removePositions(Condition condition, Set<Long> latestPositionIds) throws StorageException {
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = storage.getObjects(Position.class, new Request(
+                    new Columns.Include("id"),
+                    new Condition.And(condition, new Condition.Compare("id", ">", lastId)),
+                    new Order("id", false, DELETE_BATCH_SIZE))).stream()
+                    .map(Position::getId)
+                    .toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            List<Long> expired = ids.stream().filter(id -> !latestPositionIds.contains(id)).toList();
+            if (!expired.isEmpty()) {
+                storage.removeObject(Position.class, new Request(new Condition.In("id", expired)));
+            }
+            if (ids.size() < DELETE_BATCH_SIZE) {
+                break;
+            }
+        }
+    }
+
+    private int getRetention(Server server, Map<Long, Group> groups, Device device) {
+        Integer days = AttributeUtil.lookup(new AttributeUtil.Provider() {
+            @Override
+            public Device getDevice() {
+                return device;
+            }
+
+            @Override
+            public Group getGroup(long groupId) {
+                return groups.get(groupId);
+            }
+
+            @Override
+            public Server getServer() {
+                return server;
+            }
+
+            @Override
+            public Config getConfig() {
+                return config;
+            }
+        }, Keys.POSITIONS_RETENTION_DAYS);
+        return days != null ? days : 0;
+    }
+
+    private static LocalDate getCutoff(int days) {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(days);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private static Dialect getDialect(Connection connection) throws SQLException {
+        return switch (connection.getMetaData().getDatabaseProductName()) {
+            case "PostgreSQL" -> Dialect.POSTGRESQL;
+            case "MySQL", "MariaDB" -> Dialect.MYSQL;
+            default -> null;
+        };
+    }
+
+    private boolean maintainPartitions(Connection connection, Dialect dialect) throws SQLException {
+        if (!isPartitioned(connection, dialect) && !convertTable(connection, dialect)) {
+            return false;
+        }
+        TreeSet<YearMonth> existing = new TreeSet<>(listPartitions(connection, dialect).keySet());
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= MONTHS_AHEAD; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (dialect == Dialect.MYSQL && !existing.isEmpty() && !month.isAfter(existing.last())) {
+                continue; // only the trailing catch-all partition can be split
+            }
+            if (!existing.contains(month)) {
+                try {
+                    createPartition(connection, dialect, month);
+                    existing.add(month);
+                } catch (SQLException e) {
+                    LOGGER.warn("Failed to create positions partition {}", month, e);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isPartitioned(Connection connection, Dialect dialect) throws SQLException {
+        return switch (dialect) {
+            case POSTGRESQL -> queryLong(connection,
+                    "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+                    + "WHERE c.relname = 'tc_positions'") > 0;
+            case MYSQL -> queryLong(connection,
+                    "SELECT COUNT(*) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                    + "AND TABLE_NAME = 'tc_positions' AND PARTITION_NAME IS NOT NULL") > 0;
+        };
+    }
+
+    private boolean convertTable(Connection connection, Dialect dialect) throws SQLException {
+        if (queryLong(connection, "SELECT COUNT(*) FROM (SELECT id FROM tc_positions LIMIT 1) p") > 0) {
+            LOGGER.warn("Positions table is not empty and has to be partitioned manually");
+            return false;
+        }
+        if (dialect == Dialect.POSTGRESQL
+                && queryLong(connection, "SELECT COUNT(*) FROM pg_extension WHERE extname = 'timescaledb'") > 0) {
+            LOGGER.warn("Positions table is managed by TimescaleDB, native partitioning skipped");
+            return false;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (dialect == Dialect.POSTGRESQL) {
+                statement.execute("ALTER TABLE tc_positions RENAME TO tc_positions_unpartitioned");
+                statement.execute("CREATE TABLE tc_positions (LIKE tc_positions_unpartitioned "
+                        + "INCLUDING DEFAULTS INCLUDING IDENTITY) PARTITION BY RANGE (fixtime)");
+                String sequence = queryString(
+                        connection, "SELECT pg_get_serial_sequence('tc_positions_unpartitioned', 'id')");
+                String identity = queryString(connection, "SELECT is_identity FROM information_schema.columns "
+                        + "WHERE table_name = 'tc_positions_unpartitioned' AND column_name = 'id'");
+                if (sequence != null && !"YES".equals(identity)) {
+                    statement.execute("ALTER SEQUENCE " + sequence + " OWNED BY tc_positions.id");
+                }
+                statement.execute("DROP TABLE tc_positions_unpartitioned");
+                statement.execute("ALTER TABLE tc_positions ADD PRIMARY KEY (id, fixtime)");
+                statement.execute("CREATE INDEX position_deviceid_fixtime ON tc_positions (deviceid, fixtime)");
+                statement.execute("CREATE TABLE tc_positions_default PARTITION OF tc_positions DEFAULT");
+            } else {
+                statement.execute("ALTER TABLE tc_positions DROP PRIMARY KEY, ADD PRIMARY KEY (id, fixtime)");
+                statement.execute("ALTER TABLE tc_positions PARTITION BY " + getMySqlPartitioning(connection)
+                        + " (PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        LOGGER.info("Positions table converted to monthly partitions");
+        return true;
+    }
+
+    private boolean isMySqlTimestamp(Connection connection) throws SQLException {
+        return "timestamp".equalsIgnoreCase(queryString(connection,
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = 'tc_positions' AND COLUMN_NAME = 'fixtime'"));
+    }
+
+    private String getMySqlPartitioning(Connection connection) throws SQLException {
+        return isMySqlTimestamp(connection) ? "RANGE (UNIX_TIMESTAMP(fixtime))" : "RANGE COLUMNS(fixtime)";
+    }
+
+    private Map<YearMonth, String> listPartitions(Connection connection, Dialect dialect) throws SQLException {
+        String query = switch (dialect) {
+            case POSTGRESQL -> "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'tc_positions'";
+            case MYSQL -> "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                    + "AND TABLE_NAME = 'tc_positions' AND PARTITION_NAME IS NOT NULL";
+        };
+        Map<YearMonth, String> result = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                Matcher matcher = PARTITION_PATTERN.matcher(name);
+                if (matcher.find()) {
+                    result.put(YearMonth.parse(matcher.group(1), SUFFIX_FORMAT), name);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void createPartition(Connection connection, Dialect dialect, YearMonth month) throws SQLException {
+        String suffix = month.format(SUFFIX_FORMAT);
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+        String query;
+        if (dialect == Dialect.POSTGRESQL) {
+            query = "CREATE TABLE IF NOT EXISTS tc_positions_p" + suffix + " PARTITION OF tc_positions "
+                    + "FOR VALUES FROM (" + from + ") TO (" + to + ")";
+        } else {
+            String bound = isMySqlTimestamp(connection) ? "UNIX_TIMESTAMP(" + to + ")" : to;
+            query = "ALTER TABLE tc_positions REORGANIZE PARTITION pmax INTO (PARTITION p" + suffix
+                    + " VALUES LESS THAN (" + bound + "), PARTITION pmax VALUES LESS THAN (MAXVALUE))";
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    /**
+     * Drops expired partitions. Rows referenced by tc_devices.positionid are copied out first and inserted back,
+     * so they land in the default partition (PostgreSQL) or the oldest remaining one (MySQL).
+     */
+    private void dropPartitions(Connection connection, Dialect dialect, LocalDate cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        listPartitions(connection, dialect).forEach((month, name) -> {
+            if (!month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                expired.add(name);
+            }
+        });
+        if (dialect == Dialect.POSTGRESQL) {
+            dropPostgresPartitions(connection, expired);
+        } else {
+            dropMySqlPartitions(connection, expired);
+        }
+    }
+
+    private void dropPostgresPartitions(Connection connection, List<String> expired) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String name : expired) {
+                statement.execute("ALTER TABLE tc_positions DETACH PARTITION " + name);
+                statement.execute("INSERT INTO tc_positions OVERRIDING SYSTEM VALUE SELECT * FROM " + name
+                        + " WHERE id IN (SELECT positionid FROM tc_devices)");
+                statement.execute("DROP TABLE " + name);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        expired.forEach(name -> LOGGER.info("Dropped expired positions partition {}", name));
+    }
+
+    private void dropMySqlPartitions(Connection connection, List<String> expired) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // a regular table, so the rows survive a failure between the drop and the insert and are restored
+            // on the next run
+            restoreRetained(statement);
+            if (expired.isEmpty()) {
+                return;
+            }
+            statement.execute("CREATE TABLE " + RETAINED_TABLE + " AS SELECT * FROM tc_positions PARTITION ("
+                    + String.join(", ", expired) + ") WHERE id IN (SELECT positionid FROM tc_devices)");
+            for (String name : expired) {
+                statement.execute("ALTER TABLE tc_positions DROP PARTITION " + name);
+                LOGGER.info("Dropped expired positions partition {}", name);
+            }
+            restoreRetained(statement);
+        }
+    }
+
+    private void restoreRetained(Statement statement) throws SQLException {
+        long count = queryLong(statement.getConnection(), "SELECT COUNT(*) FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + RETAINED_TABLE + "'");
+        if (count > 0) {
+            statement.execute("INSERT INTO tc_positions SELECT * FROM " + RETAINED_TABLE);
+            statement.execute("DROP TABLE " + RETAINED_TABLE);
+        }
+    }
+
+    private static long queryLong(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static String queryString(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+}
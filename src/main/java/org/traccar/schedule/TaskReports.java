@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -77,9 +77,15 @@ public class TaskReports extends SingleScheduleTask {
         Date lastCheck = new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(CHECK_PERIOD_MINUTES));
 
         try {
-            for (Report report : storage.getObjects(Report.class, new Request(new Columns.All()))) {
-                Calendar calendar = storage.getObject(Calendar.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", report.getCalendarId())));
+            var reports = storage.getObjects(Report.class, new Request(new Columns.All()));
+            var calendars = storage.getObjectsByIds(
+                    Calendar.class, reports.stream().map(Report::getCalendarId).toList()).stream()
+                    .collect(Collectors.toMap(Calendar::getId, calendar -> calendar));
+            for (Report report : reports) {
+                Calendar calendar = calendars.get(report.getCalendarId());
+                if (calendar == null) {
+                    continue;
+                }
 
                 var lastEvents = calendar.findPeriods(lastCheck);
                 var currentEvents = calendar.findPeriods(currentCheck);
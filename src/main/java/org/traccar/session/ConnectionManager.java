@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,14 +26,15 @@ import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.DeviceLookupService;
+import org.traccar.database.DeviceUpdateManager;
 import org.traccar.database.NotificationManager;
-import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.LogRecord;
+import org.traccar.model.ObjectOperation;
 import org.traccar.model.Position;
-import org.traccar.model.User;
 import org.traccar.session.cache.CacheManager;
+import org.traccar.session.cache.PermissionIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -45,17 +46,14 @@ import jakarta.inject.Singleton;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Singleton
 public class ConnectionManager implements BroadcastInterface {
@@ -71,30 +69,32 @@ public class ConnectionManager implements BroadcastInterface {
 
     private final Config config;
     private final CacheManager cacheManager;
+    private final PermissionIndex permissionIndex;
     private final Storage storage;
     private final NotificationManager notificationManager;
     private final Timer timer;
     private final BroadcastService broadcastService;
     private final DeviceLookupService deviceLookupService;
+    private final DeviceUpdateManager deviceUpdateManager;
 
     private final Map<Long, Set<UpdateListener>> listeners = new HashMap<>();
-    private final Map<Long, Set<Long>> userDevices = new HashMap<>();
-    private final Map<Long, Set<Long>> deviceUsers = new HashMap<>();
 
     private final Map<Long, Timeout> timeouts = new ConcurrentHashMap<>();
 
     @Inject
     public ConnectionManager(
-            Config config, CacheManager cacheManager, Storage storage,
+            Config config, CacheManager cacheManager, PermissionIndex permissionIndex, Storage storage,
             NotificationManager notificationManager, Timer timer, BroadcastService broadcastService,
-            DeviceLookupService deviceLookupService) {
+            DeviceLookupService deviceLookupService, DeviceUpdateManager deviceUpdateManager) {
         this.config = config;
         this.cacheManager = cacheManager;
+        this.permissionIndex = permissionIndex;
         this.storage = storage;
         this.notificationManager = notificationManager;
         this.timer = timer;
         this.broadcastService = broadcastService;
         this.deviceLookupService = deviceLookupService;
+        this.deviceUpdateManager = deviceUpdateManager;
         deviceTimeout = config.getLong(Keys.STATUS_TIMEOUT);
         showUnknownDevices = config.getBoolean(Keys.WEB_SHOW_UNKNOWN_DEVICES);
         broadcastService.registerListener(this);
@@ -180,11 +180,19 @@ public class ConnectionManager implements BroadcastInterface {
         try {
             device.setId(storage.addObject(device, new Request(new Columns.Exclude("id"))));
             LOGGER.info("Automatically registered " + uniqueId);
-            return device;
         } catch (StorageException e) {
             LOGGER.warn("Automatic registration failed", e);
             return null;
         }
+
+        if (defaultGroupId != 0) {
+            try {
+                cacheManager.invalidateObject(true, Device.class, device.getId(), ObjectOperation.ADD);
+            } catch (Exception e) {
+                LOGGER.warn("Registered device cache update failed", e);
+            }
+        }
+        return device;
     }
 
     public void deviceDisconnected(Channel channel, boolean supportsOffline) {
@@ -268,13 +276,7 @@ public class ConnectionManager implements BroadcastInterface {
             }, deviceTimeout, TimeUnit.SECONDS));
         }
 
-        try {
-            storage.updateObject(device, new Request(
-                    new Columns.Include("status", "lastUpdate"),
-                    new Condition.Equals("id", deviceId)));
-        } catch (StorageException e) {
-            LOGGER.warn("Update device status error", e);
-        }
+        deviceUpdateManager.update(device, !status.equals(oldStatus), "status", "lastUpdate");
 
         updateDevice(true, device);
     }
@@ -295,7 +297,7 @@ public class ConnectionManager implements BroadcastInterface {
             timeouts.remove(device.getId());
             removeDeviceSession(device.getId());
         }
-        for (long userId : deviceUsers.getOrDefault(device.getId(), Collections.emptySet())) {
+        for (long userId : permissionIndex.getDeviceUsers(device.getId())) {
             if (listeners.containsKey(userId)) {
                 for (UpdateListener listener : listeners.get(userId)) {
                     listener.onUpdateDevice(device);
@@ -309,7 +311,7 @@ public class ConnectionManager implements BroadcastInterface {
         if (local) {
             broadcastService.updatePosition(true, position);
         }
-        for (long userId : deviceUsers.getOrDefault(position.getDeviceId(), Collections.emptySet())) {
+        for (long userId : permissionIndex.getDeviceUsers(position.getDeviceId())) {
             if (listeners.containsKey(userId)) {
                 for (UpdateListener listener : listeners.get(userId)) {
                     listener.onUpdatePosition(position);
@@ -330,17 +332,6 @@ public class ConnectionManager implements BroadcastInterface {
         }
     }
 
-    @Override
-    public synchronized <T1 extends BaseModel, T2 extends BaseModel> void invalidatePermission(
-            boolean local, Class<T1> clazz1, long id1, Class<T2> clazz2, long id2, boolean link) {
-        if (link && clazz1.equals(User.class) && clazz2.equals(Device.class)) {
-            if (listeners.containsKey(id1)) {
-                userDevices.get(id1).add(id2);
-                deviceUsers.put(id2, new HashSet<>(List.of(id1)));
-            }
-        }
-    }
-
     public synchronized void updateLog(LogRecord record) {
         var sessions = sessionsByEndpoint.getOrDefault(record.getConnectionKey(), Map.of());
         if (sessions.isEmpty()) {
@@ -355,7 +346,7 @@ public class ConnectionManager implements BroadcastInterface {
             var firstEntry = sessions.entrySet().iterator().next();
             record.setUniqueId(firstEntry.getKey());
             record.setDeviceId(firstEntry.getValue().getDeviceId());
-            for (long userId : deviceUsers.getOrDefault(record.getDeviceId(), Set.of())) {
+            for (long userId : permissionIndex.getDeviceUsers(record.getDeviceId())) {
                 for (UpdateListener listener : listeners.getOrDefault(userId, Set.of())) {
                     listener.onUpdateLog(record);
                 }
@@ -371,18 +362,8 @@ public class ConnectionManager implements BroadcastInterface {
         void onUpdateLog(LogRecord record);
     }
 
-    public synchronized void addListener(long userId, UpdateListener listener) throws StorageException {
-        var set = listeners.get(userId);
-        if (set == null) {
-            set = new HashSet<>();
-            listeners.put(userId, set);
-
-            var devices = storage.getObjects(Device.class, new Request(
-                    new Columns.Include("id"), new Condition.Permission(User.class, userId, Device.class)));
-            userDevices.put(userId, devices.stream().map(BaseModel::getId).collect(Collectors.toSet()));
-            devices.forEach(device -> deviceUsers.computeIfAbsent(device.getId(), id -> new HashSet<>()).add(userId));
-        }
-        set.add(listener);
+    public synchronized void addListener(long userId, UpdateListener listener) {
+        listeners.computeIfAbsent(userId, k -> new HashSet<>()).add(listener);
     }
 
     public synchronized void removeListener(long userId, UpdateListener listener) {
@@ -390,11 +371,6 @@ public class ConnectionManager implements BroadcastInterface {
         set.remove(listener);
         if (set.isEmpty()) {
             listeners.remove(userId);
-
-            userDevices.remove(userId).forEach(deviceId -> deviceUsers.computeIfPresent(deviceId, (x, userIds) -> {
-                userIds.remove(userId);
-                return userIds.isEmpty() ? null : userIds;
-            }));
         }
     }
 
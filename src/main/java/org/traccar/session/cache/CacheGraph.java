@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,13 @@ package org.traccar.session.cache;
 import org.traccar.helper.ConcurrentWeakValueMap;
 import org.traccar.model.BaseModel;
 
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 public class CacheGraph {
 
@@ -40,7 +42,12 @@ public class CacheGraph {
         CacheKey key = new CacheKey(clazz, id);
         CacheNode node = nodes.remove(key);
         if (node != null) {
-            node.getAllLinks(true).forEach(child -> child.getLinks(key.clazz(), false).remove(node));
+            node.getAllLinks(true).forEach(child -> {
+                child.getLinks(key.clazz(), false).remove(node);
+                child.incrementVersion();
+            });
+            node.getAllLinks(false).forEach(CacheNode::incrementVersion);
+            node.incrementVersion();
         }
         roots.remove(key);
     }
@@ -51,40 +58,87 @@ public class CacheGraph {
         return node != null ? (T) node.getValue() : null;
     }
 
-    <T extends BaseModel> Stream<T> getObjects(
+    /**
+     * Objects of the given class linked to the node directly or through proxy nodes. The result is memoized on the
+     * node and rebuilt only after a link or value on the walked path changes.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends BaseModel> Set<T> getObjects(
             Class<? extends BaseModel> fromClass, long fromId,
             Class<T> clazz, Set<Class<? extends BaseModel>> proxies, boolean forward) {
+        CacheView view = getView(fromClass, fromId, clazz, proxies, forward);
+        return view != null ? (Set<T>) view.objects() : Set.of();
+    }
 
-        CacheNode rootNode = nodes.get(new CacheKey(fromClass, fromId));
-        if (rootNode != null) {
-            return getObjectStream(rootNode, clazz, proxies, forward);
-        } else {
-            return Stream.empty();
-        }
+    /**
+     * Value derived from {@link #getObjects}, computed once per memoized result and result type.
+     */
+    <T extends BaseModel, R> R getDerived(
+            Class<? extends BaseModel> fromClass, long fromId,
+            Class<T> clazz, Set<Class<? extends BaseModel>> proxies, boolean forward,
+            Class<R> type, Function<Set<T>, R> function) {
+        CacheView view = getView(fromClass, fromId, clazz, proxies, forward);
+        return view != null ? view.getDerived(type, function) : function.apply(Set.of());
     }
 
-    @SuppressWarnings("unchecked")
-    private <T extends BaseModel> Stream<T> getObjectStream(
-            CacheNode rootNode, Class<T> clazz, Set<Class<? extends BaseModel>> proxies, boolean forward) {
+    private CacheView getView(
+            Class<? extends BaseModel> fromClass, long fromId,
+            Class<? extends BaseModel> clazz, Set<Class<? extends BaseModel>> proxies, boolean forward) {
 
-        if (proxies.contains(clazz)) {
-            return Stream.empty();
+        CacheNode rootNode = nodes.get(new CacheKey(fromClass, fromId));
+        if (rootNode == null) {
+            return null;
         }
+        var key = new CacheView.Key(clazz, proxies, forward);
+        CacheView view = rootNode.getView(key);
+        if (view == null) {
+            Map<CacheNode, Long> path = new IdentityHashMap<>();
+            Set<BaseModel> objects = new HashSet<>();
+            if (!proxies.contains(clazz)) {
+                collectObjects(rootNode, clazz, proxies, forward, path, objects);
+            } else {
+                path.put(rootNode, rootNode.getVersion());
+            }
+            CacheNode[] pathNodes = path.keySet().toArray(new CacheNode[0]);
+            long[] versions = new long[pathNodes.length];
+            for (int i = 0; i < pathNodes.length; i++) {
+                versions[i] = path.get(pathNodes[i]);
+            }
+            view = new CacheView(pathNodes, versions, Set.copyOf(objects));
+            rootNode.putView(key, view);
+        }
+        return view;
+    }
 
-        var directSteam = rootNode.getLinks(clazz, forward).stream()
-                .map(node -> (T) node.getValue());
+    private void collectObjects(
+            CacheNode node, Class<? extends BaseModel> clazz, Set<Class<? extends BaseModel>> proxies,
+            boolean forward, Map<CacheNode, Long> path, Set<BaseModel> objects) {
 
-        var proxyStream = proxies.stream()
-                .flatMap(proxyClass -> rootNode.getLinks(proxyClass, forward).stream()
-                        .flatMap(node -> getObjectStream(node, clazz, proxies, forward)));
+        if (path.containsKey(node)) {
+            return;
+        }
+        path.put(node, node.getVersion());
+        node.getLinks(clazz, forward).forEach(child -> objects.add(child.getValue()));
+        for (Class<? extends BaseModel> proxyClass : proxies) {
+            for (CacheNode proxyNode : node.getLinks(proxyClass, forward)) {
+                collectObjects(proxyNode, clazz, proxies, forward, path, objects);
+            }
+        }
+    }
 
-        return Stream.concat(directSteam, proxyStream);
+    void setInitialized(Class<? extends BaseModel> clazz, long id) {
+        CacheNode node = nodes.get(new CacheKey(clazz, id));
+        if (node != null) {
+            node.setInitialized(true);
+        }
     }
 
     void updateObject(BaseModel value) {
         CacheNode node = nodes.get(new CacheKey(value));
         if (node != null) {
             node.setValue(value);
+            node.incrementVersion();
+            node.getAllLinks(false).forEach(CacheNode::incrementVersion);
         }
     }
 
@@ -98,12 +152,18 @@ public class CacheGraph {
             CacheKey toKey = new CacheKey(toClazz, toId);
             CacheNode toNode = nodes.get(toKey);
             if (toNode == null) {
-                stop = false;
-                toNode = new CacheNode(objectSupplier.get());
-                nodes.put(toKey, toNode);
+                CacheNode newNode = new CacheNode(objectSupplier.get());
+                toNode = nodes.putIfAbsent(toKey, newNode);
+                if (toNode == null) {
+                    toNode = newNode;
+                }
             }
+            // a node still being loaded by another thread is initialized again by the caller
+            stop = toNode.isInitialized();
             fromNode.getLinks(toClazz, true).add(toNode);
             toNode.getLinks(fromClazz, false).add(fromNode);
+            fromNode.incrementVersion();
+            toNode.incrementVersion();
         }
         return stop;
     }
@@ -117,6 +177,8 @@ public class CacheGraph {
             if (toNode != null) {
                 fromNode.getLinks(toClazz, true).remove(toNode);
                 toNode.getLinks(fromClazz, false).remove(fromNode);
+                fromNode.incrementVersion();
+                toNode.incrementVersion();
             }
         }
     }
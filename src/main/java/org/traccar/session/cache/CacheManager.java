@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,9 @@ import org.slf4j.LoggerFactory;
 import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
+import org.traccar.config.ConfigKey;
+import org.traccar.config.Keys;
+import org.traccar.helper.StartupTimer;
 import org.traccar.model.Attribute;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Calendar;
@@ -44,10 +47,18 @@ import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -59,23 +70,85 @@ public class CacheManager implements BroadcastInterface {
     private static final Set<Class<? extends BaseModel>> GROUPED_CLASSES =
             Set.of(Attribute.class, Driver.class, Geofence.class, Maintenance.class, Notification.class);
 
+    private static final int LOCK_STRIPES = 64;
+    private static final Object WARMUP_KEY = new Object();
+
     private final Config config;
     private final Storage storage;
     private final BroadcastService broadcastService;
+    private final PermissionIndex permissionIndex;
 
     private final CacheGraph graph = new CacheGraph();
+    private final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+    private final Lock[] deviceLocks = new Lock[LOCK_STRIPES];
 
     private volatile Server server;
     private final Map<Long, Position> devicePositions = new ConcurrentHashMap<>();
-    private final Map<Long, HashSet<Object>> deviceReferences = new ConcurrentHashMap<>();
+    private final Map<Long, Object[]> deviceAttributes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Object>> deviceReferences = new ConcurrentHashMap<>();
+
+    private final CacheSource storageSource = new CacheSource() {
+        @Override
+        public List<Permission> getPermissions(
+                Class<? extends BaseModel> ownerClass, long ownerId,
+                Class<? extends BaseModel> propertyClass, long propertyId) throws StorageException {
+            return storage.getPermissions(ownerClass, ownerId, propertyClass, propertyId);
+        }
+
+        @Override
+        public <T extends BaseModel> T getObject(Class<T> clazz, long id) throws StorageException {
+            return storage.getObject(clazz, new Request(new Columns.All(), new Condition.Equals("id", id)));
+        }
+    };
 
     @Inject
-    public CacheManager(Config config, Storage storage, BroadcastService broadcastService) throws StorageException {
+    public CacheManager(
+            Config config, Storage storage, BroadcastService broadcastService,
+            PermissionIndex permissionIndex) throws StorageException {
         this.config = config;
         this.storage = storage;
         this.broadcastService = broadcastService;
+        this.permissionIndex = permissionIndex;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            deviceLocks[i] = new ReentrantLock();
+        }
         server = storage.getObject(Server.class, new Request(new Columns.All()));
         broadcastService.registerListener(this);
+        if (config.getBoolean(Keys.DATABASE_CACHE_WARMUP)) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Loads all devices using one query per table and keeps them cached.
+     */
+    private void warmUp() throws StorageException {
+        long start = System.nanoTime();
+        var source = new BulkSource();
+        List<Device> devices = storage.getObjects(Device.class, new Request(new Columns.All()));
+        source.putObjects(Device.class, devices);
+        var positions = storage.getObjectsByIds(Position.class, devices.stream()
+                .map(Device::getPositionId).filter(id -> id > 0).toList()).stream()
+                .collect(Collectors.toMap(Position::getDeviceId, position -> position, (a, b) -> a));
+
+        graphLock.writeLock().lock();
+        try {
+            for (Device device : devices) {
+                Set<Object> references = new HashSet<>();
+                references.add(WARMUP_KEY);
+                graph.addObject(device);
+                initializeCache(source, device);
+                Position position = positions.get(device.getId());
+                if (position != null) {
+                    devicePositions.put(device.getId(), position);
+                }
+                deviceReferences.put(device.getId(), references);
+            }
+        } finally {
+            graphLock.writeLock().unlock();
+        }
+        StartupTimer.record("cacheWarmup", start);
+        LOGGER.info("Cache warm-up loaded {} devices", devices.size());
     }
 
     @Override
@@ -92,8 +165,34 @@ public class CacheManager implements BroadcastInterface {
     }
 
     public <T extends BaseModel> Set<T> getDeviceObjects(long deviceId, Class<T> clazz) {
-        return graph.getObjects(Device.class, deviceId, clazz, Set.of(Group.class), true)
-                .collect(Collectors.toUnmodifiableSet());
+        return graph.getObjects(Device.class, deviceId, clazz, Set.of(Group.class), true);
+    }
+
+    /**
+     * Structure built from {@link #getDeviceObjects}, such as a spatial index. It is computed once per result type and
+     * reused until the device objects change, so each result type must always be built by the same function.
+     */
+    public <T extends BaseModel, R> R getDeviceObjects(
+            long deviceId, Class<T> clazz, Class<R> type, Function<Set<T>, R> function) {
+        return graph.getDerived(Device.class, deviceId, clazz, Set.of(Group.class), true, type, function);
+    }
+
+    /**
+     * Resolved attribute values of a cached device, indexed by {@link ConfigKey#getIndex()}. Empty slots are filled
+     * by the caller. The table is dropped when the device, any group or the server changes.
+     */
+    public Object[] getAttributeTable(long deviceId) {
+        Object[] table = deviceAttributes.get(deviceId);
+        int size = ConfigKey.getIndexCount();
+        if (table == null || table.length < size) {
+            if (graph.getObject(Device.class, deviceId) == null) {
+                return null;
+            }
+            table = deviceAttributes.compute(deviceId, (id, existing) ->
+                    existing == null ? new Object[size] : existing.length < size
+                            ? Arrays.copyOf(existing, size) : existing);
+        }
+        return table;
     }
 
     public Position getPosition(long deviceId) {
@@ -106,48 +205,102 @@ public class CacheManager implements BroadcastInterface {
 
     public Set<User> getNotificationUsers(long notificationId, long deviceId) {
         Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
-        return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false)
+        return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false).stream()
                 .filter(deviceUsers::contains)
                 .collect(Collectors.toUnmodifiableSet());
     }
 
     public Set<Notification> getDeviceNotifications(long deviceId) {
-        var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
+        var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true).stream()
                 .map(BaseModel::getId)
                 .collect(Collectors.toUnmodifiableSet());
         return graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class, User.class), true)
+                .stream()
                 .filter(notification -> notification.getAlways() || direct.contains(notification.getId()))
                 .collect(Collectors.toUnmodifiableSet());
     }
 
-    public synchronized void addDevice(long deviceId, Object key) throws Exception {
-        var references = deviceReferences.computeIfAbsent(deviceId, k -> new HashSet<>());
-        if (references.isEmpty()) {
-            Device device = storage.getObject(Device.class, new Request(
-                    new Columns.All(), new Condition.Equals("id", deviceId)));
-            graph.addObject(device);
-            initializeCache(device);
-            if (device.getPositionId() > 0) {
-                Position position = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", device.getPositionId())));
-                if (position != null) {
-                    devicePositions.put(deviceId, position);
+    /**
+     * Takes a reference on a device. Only the first reference loads the device, holding a per-device lock.
+     */
+    public void addDevice(long deviceId, Object key) throws Exception {
+        if (retainDevice(deviceId, key)) {
+            return;
+        }
+        Lock lock = deviceLocks[lockIndex(deviceId)];
+        lock.lock();
+        try {
+            if (!retainDevice(deviceId, key)) {
+                loadDevice(deviceId);
+                var references = new HashSet<>();
+                references.add(key);
+                deviceReferences.put(deviceId, references);
+                LOGGER.debug("Cache add device {} references {} key {}", deviceId, references.size(), key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a reference on a device. Only the last reference unloads the device.
+     */
+    public void removeDevice(long deviceId, Object key) {
+        var remaining = deviceReferences.computeIfPresent(deviceId, (id, references) -> {
+            references.remove(key);
+            LOGGER.debug("Cache remove device {} references {} key {}", id, references.size(), key);
+            return references.isEmpty() ? null : references;
+        });
+        if (remaining != null) {
+            return;
+        }
+        Lock lock = deviceLocks[lockIndex(deviceId)];
+        lock.lock();
+        try {
+            if (!deviceReferences.containsKey(deviceId)) {
+                graphLock.readLock().lock();
+                try {
+                    graph.removeObject(Device.class, deviceId);
+                } finally {
+                    graphLock.readLock().unlock();
                 }
+                devicePositions.remove(deviceId);
+                deviceAttributes.remove(deviceId);
             }
+        } finally {
+            lock.unlock();
         }
-        references.add(key);
-        LOGGER.debug("Cache add device {} references {} key {}", deviceId, references.size(), key);
     }
 
-    public synchronized void removeDevice(long deviceId, Object key) {
-        var references = deviceReferences.computeIfAbsent(deviceId, k -> new HashSet<>());
-        references.remove(key);
-        if (references.isEmpty()) {
-            graph.removeObject(Device.class, deviceId);
-            devicePositions.remove(deviceId);
-            deviceReferences.remove(deviceId);
+    private static int lockIndex(long deviceId) {
+        return Long.hashCode(deviceId) & (LOCK_STRIPES - 1);
+    }
+
+    private boolean retainDevice(long deviceId, Object key) {
+        return deviceReferences.computeIfPresent(deviceId, (id, references) -> {
+            references.add(key);
+            LOGGER.debug("Cache add device {} references {} key {}", id, references.size(), key);
+            return references;
+        }) != null;
+    }
+
+    private void loadDevice(long deviceId) throws Exception {
+        Device device = storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("id", deviceId)));
+        graphLock.readLock().lock();
+        try {
+            graph.addObject(device);
+            initializeCache(storageSource, device);
+        } finally {
+            graphLock.readLock().unlock();
+        }
+        if (device.getPositionId() > 0) {
+            Position position = storage.getObject(Position.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", device.getPositionId())));
+            if (position != null) {
+                devicePositions.put(deviceId, position);
+            }
         }
-        LOGGER.debug("Cache remove device {} references {} key {}", deviceId, references.size(), key);
     }
 
     public void updatePosition(Position position) {
@@ -164,11 +317,18 @@ public class CacheManager implements BroadcastInterface {
             broadcastService.invalidateObject(true, clazz, id, operation);
         }
 
-        synchronized (this) {
+        if (operation == ObjectOperation.DELETE && clazz.equals(Device.class)) {
+            removeDevice(id, WARMUP_KEY);
+        }
+
+        graphLock.writeLock().lock();
+        try {
             if (operation == ObjectOperation.DELETE) {
                 graph.removeObject(clazz, id);
+                permissionIndex.removeObject(clazz, id);
+                return;
             }
-            if (operation != ObjectOperation.UPDATE) {
+            if (operation == ObjectOperation.ADD && !PermissionIndex.supports(clazz)) {
                 return;
             }
 
@@ -182,6 +342,10 @@ public class CacheManager implements BroadcastInterface {
             if (after == null) {
                 return;
             }
+            permissionIndex.updateObject(after);
+            if (operation == ObjectOperation.ADD) {
+                return;
+            }
             var before = getObject(after.getClass(), after.getId());
             if (before == null) {
                 return;
@@ -192,10 +356,10 @@ public class CacheManager implements BroadcastInterface {
                 long afterGroupId = ((GroupedModel) after).getGroupId();
                 if (beforeGroupId != afterGroupId) {
                     if (beforeGroupId > 0) {
-                        invalidatePermission(clazz, id, Group.class, beforeGroupId, false);
+                        invalidatePermission(storageSource, clazz, id, Group.class, beforeGroupId, false);
                     }
                     if (afterGroupId > 0) {
-                        invalidatePermission(clazz, id, Group.class, afterGroupId, true);
+                        invalidatePermission(storageSource, clazz, id, Group.class, afterGroupId, true);
                     }
                 }
             } else if (after instanceof Schedulable) {
@@ -203,16 +367,23 @@ public class CacheManager implements BroadcastInterface {
                 long afterCalendarId = ((Schedulable) after).getCalendarId();
                 if (beforeCalendarId != afterCalendarId) {
                     if (beforeCalendarId > 0) {
-                        invalidatePermission(clazz, id, Calendar.class, beforeCalendarId, false);
+                        invalidatePermission(storageSource, clazz, id, Calendar.class, beforeCalendarId, false);
                     }
                     if (afterCalendarId > 0) {
-                        invalidatePermission(clazz, id, Calendar.class, afterCalendarId, true);
+                        invalidatePermission(storageSource, clazz, id, Calendar.class, afterCalendarId, true);
                     }
                 }
                 // TODO handle notification always change
             }
 
             graph.updateObject(after);
+        } finally {
+            if (clazz.equals(Device.class)) {
+                deviceAttributes.remove(id);
+            } else if (clazz.equals(Group.class) || clazz.equals(Server.class)) {
+                deviceAttributes.clear();
+            }
+            graphLock.writeLock().unlock();
         }
     }
 
@@ -223,17 +394,23 @@ public class CacheManager implements BroadcastInterface {
             broadcastService.invalidatePermission(true, clazz1, id1, clazz2, id2, link);
         }
 
-        synchronized (this) {
+        permissionIndex.updatePermission(clazz1, id1, clazz2, id2, link);
+
+        graphLock.writeLock().lock();
+        try {
             if (clazz1.equals(User.class) && GroupedModel.class.isAssignableFrom(clazz2)) {
-                invalidatePermission(clazz2, id2, clazz1, id1, link);
+                invalidatePermission(storageSource, clazz2, id2, clazz1, id1, link);
             } else {
-                invalidatePermission(clazz1, id1, clazz2, id2, link);
+                invalidatePermission(storageSource, clazz1, id1, clazz2, id2, link);
             }
+        } finally {
+            graphLock.writeLock().unlock();
         }
     }
 
     private <T1 extends BaseModel, T2 extends BaseModel> void invalidatePermission(
-            Class<T1> fromClass, long fromId, Class<T2> toClass, long toId, boolean link) throws Exception {
+            CacheSource source, Class<T1> fromClass, long fromId, Class<T2> toClass, long toId, boolean link)
+            throws StorageException {
 
         boolean groupLink = GroupedModel.class.isAssignableFrom(fromClass) && toClass.equals(Group.class);
         boolean calendarLink = Schedulable.class.isAssignableFrom(fromClass) && toClass.equals(Calendar.class);
@@ -247,43 +424,38 @@ public class CacheManager implements BroadcastInterface {
         }
 
         if (link) {
-            if (!graph.addLink(fromClass, fromId, toClass, toId, createObjectSupplier(toClass, toId))) {
-                initializeCache(graph.getObject(toClass, toId));
+            if (!graph.addLink(fromClass, fromId, toClass, toId, createObjectSupplier(source, toClass, toId))) {
+                initializeCache(source, graph.getObject(toClass, toId));
+                graph.setInitialized(toClass, toId);
             }
         } else {
             graph.removeLink(fromClass, fromId, toClass, toId);
         }
     }
 
-    private void initializeCache(BaseModel object) throws Exception {
+    private void initializeCache(CacheSource source, BaseModel object) throws StorageException {
         if (object instanceof User) {
-            for (Permission permission : storage.getPermissions(User.class, Notification.class)) {
-                if (permission.getOwnerId() == object.getId()) {
-                    invalidatePermission(
-                            permission.getOwnerClass(), permission.getOwnerId(),
-                            permission.getPropertyClass(), permission.getPropertyId(), true);
-                }
+            for (Permission permission : source.getPermissions(User.class, object.getId(), Notification.class, 0)) {
+                invalidatePermission(
+                        source, permission.getOwnerClass(), permission.getOwnerId(),
+                        permission.getPropertyClass(), permission.getPropertyId(), true);
             }
         } else {
             if (object instanceof GroupedModel groupedModel) {
                 long groupId = groupedModel.getGroupId();
                 if (groupId > 0) {
-                    invalidatePermission(object.getClass(), object.getId(), Group.class, groupId, true);
+                    invalidatePermission(source, object.getClass(), object.getId(), Group.class, groupId, true);
                 }
 
-                for (Permission permission : storage.getPermissions(User.class, object.getClass())) {
-                    if (permission.getPropertyId() == object.getId()) {
-                        invalidatePermission(
-                                object.getClass(), object.getId(), User.class, permission.getOwnerId(), true);
-                    }
+                for (Permission permission : source.getPermissions(User.class, 0, object.getClass(), object.getId())) {
+                    invalidatePermission(
+                            source, object.getClass(), object.getId(), User.class, permission.getOwnerId(), true);
                 }
 
                 for (Class<? extends BaseModel> clazz : GROUPED_CLASSES) {
-                    for (Permission permission : storage.getPermissions(object.getClass(), clazz)) {
-                        if (permission.getOwnerId() == object.getId()) {
-                            invalidatePermission(
-                                    object.getClass(), object.getId(), clazz, permission.getPropertyId(), true);
-                        }
+                    for (Permission permission : source.getPermissions(object.getClass(), object.getId(), clazz, 0)) {
+                        invalidatePermission(
+                                source, object.getClass(), object.getId(), clazz, permission.getPropertyId(), true);
                     }
                 }
             }
@@ -291,21 +463,72 @@ public class CacheManager implements BroadcastInterface {
             if (object instanceof Schedulable schedulable) {
                 long calendarId = schedulable.getCalendarId();
                 if (calendarId > 0) {
-                    invalidatePermission(object.getClass(), object.getId(), Calendar.class, calendarId, true);
+                    invalidatePermission(source, object.getClass(), object.getId(), Calendar.class, calendarId, true);
                 }
             }
         }
     }
 
-    private <T> Supplier<T> createObjectSupplier(Class<T> clazz, long id) {
+    private <T extends BaseModel> Supplier<T> createObjectSupplier(CacheSource source, Class<T> clazz, long id) {
         return () -> {
             try {
-                return storage.getObject(clazz, new Request(
-                        new Columns.All(), new Condition.Equals("id", id)));
+                return source.getObject(clazz, id);
             } catch (StorageException e) {
                 throw new RuntimeException(e);
             }
         };
     }
 
+    private interface CacheSource {
+
+        List<Permission> getPermissions(
+                Class<? extends BaseModel> ownerClass, long ownerId,
+                Class<? extends BaseModel> propertyClass, long propertyId) throws StorageException;
+
+        <T extends BaseModel> T getObject(Class<T> clazz, long id) throws StorageException;
+
+    }
+
+    /**
+     * Reads each object and link table once in full and answers lookups from memory.
+     */
+    private final class BulkSource implements CacheSource {
+
+        private final Map<Class<?>, Map<Long, BaseModel>> objects = new HashMap<>();
+        private final Map<List<Class<?>>, Map<Long, List<Permission>>> owners = new HashMap<>();
+        private final Map<List<Class<?>>, Map<Long, List<Permission>>> properties = new HashMap<>();
+
+        void putObjects(Class<?> clazz, List<? extends BaseModel> values) {
+            objects.put(clazz, values.stream().collect(Collectors.toMap(BaseModel::getId, value -> value)));
+        }
+
+        @Override
+        public List<Permission> getPermissions(
+                Class<? extends BaseModel> ownerClass, long ownerId,
+                Class<? extends BaseModel> propertyClass, long propertyId) throws StorageException {
+            List<Class<?>> key = List.of(ownerClass, propertyClass);
+            if (!owners.containsKey(key)) {
+                var permissions = storage.getPermissions(ownerClass, propertyClass);
+                owners.put(key, permissions.stream().collect(Collectors.groupingBy(Permission::getOwnerId)));
+                properties.put(key, permissions.stream().collect(Collectors.groupingBy(Permission::getPropertyId)));
+            }
+            List<Permission> result = ownerId > 0
+                    ? owners.get(key).getOrDefault(ownerId, List.of())
+                    : properties.get(key).getOrDefault(propertyId, List.of());
+            if (ownerId > 0 && propertyId > 0) {
+                return result.stream().filter(permission -> permission.getPropertyId() == propertyId).toList();
+            }
+            return result;
+        }
+
+        @Override
+        public <T extends BaseModel> T getObject(Class<T> clazz, long id) throws StorageException {
+            if (!objects.containsKey(clazz)) {
+                putObjects(clazz, storage.getObjects(clazz, new Request(new Columns.All())));
+            }
+            return clazz.cast(objects.get(clazz).get(id));
+        }
+
+    }
+
 }
@@ -2,7 +2,6 @@ package org.traccar.session.cache;
 
 import org.traccar.model.BaseModel;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,7 +9,11 @@ import java.util.stream.Stream;
 
 public class CacheNode {
 
-    private BaseModel value;
+    private volatile BaseModel value;
+    private volatile boolean initialized;
+    private volatile long version;
+
+    private final Map<CacheView.Key, CacheView> views = new ConcurrentHashMap<>();
 
     private final Map<Class<? extends BaseModel>, Set<CacheNode>> links = new ConcurrentHashMap<>();
     private final Map<Class<? extends BaseModel>, Set<CacheNode>> backlinks = new ConcurrentHashMap<>();
@@ -27,9 +30,37 @@ public class CacheNode {
         this.value = value;
     }
 
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void setInitialized(boolean initialized) {
+        this.initialized = initialized;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Marks views that walked through this node as stale. Called after the node links or value change.
+     */
+    public synchronized void incrementVersion() {
+        version++;
+    }
+
+    CacheView getView(CacheView.Key key) {
+        CacheView view = views.get(key);
+        return view != null && view.isValid() ? view : null;
+    }
+
+    void putView(CacheView.Key key, CacheView view) {
+        views.put(key, view);
+    }
+
     public Set<CacheNode> getLinks(Class<? extends BaseModel> clazz, boolean forward) {
         var map = forward ? links : backlinks;
-        return map.computeIfAbsent(clazz, k -> new HashSet<>());
+        return map.computeIfAbsent(clazz, k -> ConcurrentHashMap.newKeySet());
     }
 
     public Stream<CacheNode> getAllLinks(boolean forward) {
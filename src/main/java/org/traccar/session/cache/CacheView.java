@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session.cache;
+
+import org.traccar.model.BaseModel;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Resolved objects of one class reachable from a node, valid while no node on the walked path has changed.
+ */
+final class CacheView {
+
+    record Key(Class<? extends BaseModel> clazz, Set<Class<? extends BaseModel>> proxies, boolean forward) {
+    }
+
+    private final CacheNode[] path;
+    private final long[] versions;
+    private final Set<? extends BaseModel> objects;
+    private final Map<Class<?>, Object> derived = new ConcurrentHashMap<>();
+
+    CacheView(CacheNode[] path, long[] versions, Set<? extends BaseModel> objects) {
+        this.path = path;
+        this.versions = versions;
+        this.objects = objects;
+    }
+
+    Set<? extends BaseModel> objects() {
+        return objects;
+    }
+
+    boolean isValid() {
+        for (int i = 0; i < path.length; i++) {
+            if (path[i].getVersion() != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Value computed from the objects once per view and result type, such as a lookup index. Callers must use a single
+     * function for each result type.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends BaseModel, R> R getDerived(Class<R> type, Function<Set<T>, R> function) {
+        return type.cast(derived.computeIfAbsent(type, key -> function.apply((Set<T>) objects)));
+    }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session.cache;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.Permission;
+import org.traccar.model.User;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory closure of user device and group permissions, including devices and groups reachable through nested
+ * groups. Loaded once at startup and kept up to date by {@link CacheManager} invalidations.
+ * <p>
+ * Computed closures are immutable and read without locking. Missing closures are computed under the read lock and
+ * updates take the write lock before clearing affected closures, so a closure computed from old links is never
+ * published after the update.
+ */
+@Singleton
+public class PermissionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermissionIndex.class);
+
+    private record Closure(Set<Long> devices, Set<Long> groups) {
+    }
+
+    private final Map<Long, Set<Long>> userDevices = new HashMap<>();
+    private final Map<Long, Set<Long>> userGroups = new HashMap<>();
+    private final Map<Long, Set<Long>> deviceUsers = new HashMap<>();
+    private final Map<Long, Set<Long>> groupUsers = new HashMap<>();
+
+    private final Map<Long, Long> deviceGroup = new HashMap<>();
+    private final Map<Long, Long> groupParent = new HashMap<>();
+    private final Map<Long, Set<Long>> groupDevices = new HashMap<>();
+    private final Map<Long, Set<Long>> groupChildren = new HashMap<>();
+
+    private final Map<Long, Closure> userClosures = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> deviceClosures = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Inject
+    public PermissionIndex(Storage storage) throws StorageException {
+        for (Permission permission : storage.getPermissions(User.class, Device.class)) {
+            link(userDevices, deviceUsers, permission.getOwnerId(), permission.getPropertyId());
+        }
+        for (Permission permission : storage.getPermissions(User.class, Group.class)) {
+            link(userGroups, groupUsers, permission.getOwnerId(), permission.getPropertyId());
+        }
+        for (Group group : storage.getObjects(Group.class, new Request(new Columns.Include("id", "groupId")))) {
+            setParent(groupParent, groupChildren, group.getId(), group.getGroupId());
+        }
+        for (Device device : storage.getObjects(Device.class, new Request(new Columns.Include("id", "groupId")))) {
+            setParent(deviceGroup, groupDevices, device.getId(), device.getGroupId());
+        }
+        LOGGER.info("Permission index loaded {} devices and {} groups", deviceGroup.size(), groupParent.size());
+    }
+
+    public static boolean supports(Class<?> clazz) {
+        return clazz.equals(Device.class) || clazz.equals(Group.class);
+    }
+
+    public boolean checkPermission(Class<?> clazz, long userId, long objectId) {
+        Closure closure = getClosure(userId);
+        if (clazz.equals(Device.class)) {
+            return closure.devices().contains(objectId);
+        } else if (clazz.equals(Group.class)) {
+            return closure.groups().contains(objectId);
+        }
+        throw new IllegalArgumentException("Unsupported permission class " + clazz.getSimpleName());
+    }
+
+    public Set<Long> getUserDevices(long userId) {
+        return getClosure(userId).devices();
+    }
+
+    public Set<Long> getUserGroups(long userId) {
+        return getClosure(userId).groups();
+    }
+
+    public Set<Long> getDeviceUsers(long deviceId) {
+        Set<Long> result = deviceClosures.get(deviceId);
+        if (result != null) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            return deviceClosures.computeIfAbsent(deviceId, key -> {
+                Set<Long> users = new HashSet<>(deviceUsers.getOrDefault(deviceId, Set.of()));
+                Set<Long> visited = new HashSet<>();
+                long groupId = deviceGroup.getOrDefault(deviceId, 0L);
+                while (groupId > 0 && visited.add(groupId)) {
+                    users.addAll(groupUsers.getOrDefault(groupId, Set.of()));
+                    groupId = groupParent.getOrDefault(groupId, 0L);
+                }
+                return Set.copyOf(users);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devices in the group and all of its nested groups, regardless of user.
+     */
+    public Set<Long> getGroupDevices(long groupId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> devices = new HashSet<>();
+            for (long id : expandGroups(Set.of(groupId))) {
+                devices.addAll(groupDevices.getOrDefault(id, Set.of()));
+            }
+            return devices;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void updatePermission(
+            Class<?> ownerClass, long ownerId, Class<?> propertyClass, long propertyId, boolean link) {
+        if (!ownerClass.equals(User.class)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            updatePermissionLocked(ownerId, propertyClass, propertyId, link);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updatePermissionLocked(long ownerId, Class<?> propertyClass, long propertyId, boolean link) {
+        if (propertyClass.equals(Device.class)) {
+            if (link) {
+                link(userDevices, deviceUsers, ownerId, propertyId);
+            } else {
+                unlink(userDevices, deviceUsers, ownerId, propertyId);
+            }
+            userClosures.remove(ownerId);
+            deviceClosures.remove(propertyId);
+        } else if (propertyClass.equals(Group.class)) {
+            if (link) {
+                link(userGroups, groupUsers, ownerId, propertyId);
+            } else {
+                unlink(userGroups, groupUsers, ownerId, propertyId);
+            }
+            userClosures.remove(ownerId);
+            deviceClosures.clear();
+        }
+    }
+
+    public void updateObject(BaseModel object) {
+        lock.writeLock().lock();
+        try {
+            updateObjectLocked(object);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateObjectLocked(BaseModel object) {
+        if (object instanceof Device device) {
+            if (deviceGroup.getOrDefault(device.getId(), -1L) != device.getGroupId()) {
+                setParent(deviceGroup, groupDevices, device.getId(), device.getGroupId());
+                invalidateClosures();
+            }
+        } else if (object instanceof Group group) {
+            if (groupParent.getOrDefault(group.getId(), -1L) != group.getGroupId()) {
+                setParent(groupParent, groupChildren, group.getId(), group.getGroupId());
+                invalidateClosures();
+            }
+        }
+    }
+
+    public void removeObject(Class<?> clazz, long id) {
+        lock.writeLock().lock();
+        try {
+            removeObjectLocked(clazz, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeObjectLocked(Class<?> clazz, long id) {
+        if (clazz.equals(User.class)) {
+            userDevices.getOrDefault(id, Set.of()).forEach(deviceId -> removeValue(deviceUsers, deviceId, id));
+            userGroups.getOrDefault(id, Set.of()).forEach(groupId -> removeValue(groupUsers, groupId, id));
+            userDevices.remove(id);
+            userGroups.remove(id);
+        } else if (clazz.equals(Device.class)) {
+            deviceUsers.getOrDefault(id, Set.of()).forEach(userId -> removeValue(userDevices, userId, id));
+            deviceUsers.remove(id);
+            setParent(deviceGroup, groupDevices, id, 0);
+            deviceGroup.remove(id);
+        } else if (clazz.equals(Group.class)) {
+            groupUsers.getOrDefault(id, Set.of()).forEach(userId -> removeValue(userGroups, userId, id));
+            groupUsers.remove(id);
+            for (long deviceId : Set.copyOf(groupDevices.getOrDefault(id, Set.of()))) {
+                setParent(deviceGroup, groupDevices, deviceId, 0);
+            }
+            for (long childId : Set.copyOf(groupChildren.getOrDefault(id, Set.of()))) {
+                setParent(groupParent, groupChildren, childId, 0);
+            }
+            setParent(groupParent, groupChildren, id, 0);
+            groupParent.remove(id);
+        } else {
+            return;
+        }
+        invalidateClosures();
+    }
+
+    private void invalidateClosures() {
+        userClosures.clear();
+        deviceClosures.clear();
+    }
+
+    private Closure getClosure(long userId) {
+        Closure closure = userClosures.get(userId);
+        if (closure != null) {
+            return closure;
+        }
+        lock.readLock().lock();
+        try {
+            return userClosures.computeIfAbsent(userId, key -> {
+                Set<Long> groups = expandGroups(userGroups.getOrDefault(userId, Set.of()));
+                Set<Long> devices = new HashSet<>(userDevices.getOrDefault(userId, Set.of()));
+                for (long groupId : groups) {
+                    devices.addAll(groupDevices.getOrDefault(groupId, Set.of()));
+                }
+                return new Closure(Set.copyOf(devices), Set.copyOf(groups));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> expandGroups(Set<Long> roots) {
+        Set<Long> result = new HashSet<>(roots);
+        var queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            for (long childId : groupChildren.getOrDefault(queue.pop(), Set.of())) {
+                if (result.add(childId)) {
+                    queue.add(childId);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void link(Map<Long, Set<Long>> forward, Map<Long, Set<Long>> reverse, long from, long to) {
+        forward.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+        reverse.computeIfAbsent(to, k -> new HashSet<>()).add(from);
+    }
+
+    private static void unlink(Map<Long, Set<Long>> forward, Map<Long, Set<Long>> reverse, long from, long to) {
+        removeValue(forward, from, to);
+        removeValue(reverse, to, from);
+    }
+
+    private static void removeValue(Map<Long, Set<Long>> map, long key, long value) {
+        map.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private static void setParent(Map<Long, Long> parents, Map<Long, Set<Long>> children, long id, long parentId) {
+        Long previous = parents.put(id, parentId);
+        if (previous != null && previous > 0) {
+            removeValue(children, previous, id);
+        }
+        if (parentId > 0) {
+            children.computeIfAbsent(parentId, k -> new HashSet<>()).add(id);
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.model.Position;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of model attributes. Well-known keys are stored as dictionary ids, numbered keys such as
+ * {@code io239} as prefix id and number, integers as zigzag varints and doubles as 8 bytes. Larger payloads are
+ * deflated. Values that are not scalars fall back to embedded JSON.
+ */
+public final class AttributeCodec {
+
+    private static final int FORMAT_PLAIN = 1;
+    private static final int FORMAT_DEFLATE = 2;
+
+    private static final int COMPRESSION_THRESHOLD = 256;
+
+    private static final int KEY_DICTIONARY = 0;
+    private static final int KEY_PREFIX = 1;
+    private static final int KEY_LITERAL = 2;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_FALSE = 1;
+    private static final int TYPE_TRUE = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_DOUBLE = 4;
+    private static final int TYPE_STRING = 5;
+    private static final int TYPE_JSON = 6;
+
+    // append only, ids are persisted
+    private static final String[] KEYS = {
+            Position.KEY_ORIGINAL, Position.KEY_INDEX, Position.KEY_HDOP, Position.KEY_VDOP, Position.KEY_PDOP,
+            Position.KEY_SATELLITES, Position.KEY_SATELLITES_VISIBLE, Position.KEY_RSSI, Position.KEY_GPS,
+            Position.KEY_ROAMING, Position.KEY_EVENT, Position.KEY_ALARM, Position.KEY_STATUS, Position.KEY_ODOMETER,
+            Position.KEY_ODOMETER_SERVICE, Position.KEY_ODOMETER_TRIP, Position.KEY_HOURS, Position.KEY_STEPS,
+            Position.KEY_HEART_RATE, Position.KEY_INPUT, Position.KEY_OUTPUT, Position.KEY_IMAGE, Position.KEY_VIDEO,
+            Position.KEY_AUDIO, Position.KEY_POWER, Position.KEY_BATTERY, Position.KEY_BATTERY_LEVEL,
+            Position.KEY_FUEL, Position.KEY_FUEL_USED, Position.KEY_FUEL_CONSUMPTION, Position.KEY_FUEL_LEVEL,
+            Position.KEY_VERSION_FW, Position.KEY_VERSION_HW, Position.KEY_TYPE, Position.KEY_IGNITION,
+            Position.KEY_FLAGS, Position.KEY_ANTENNA, Position.KEY_CHARGE, Position.KEY_IP, Position.KEY_ARCHIVE,
+            Position.KEY_DISTANCE, Position.KEY_TOTAL_DISTANCE, Position.KEY_RPM, Position.KEY_VIN,
+            Position.KEY_APPROXIMATE, Position.KEY_THROTTLE, Position.KEY_MOTION, Position.KEY_ARMED,
+            Position.KEY_GEOFENCE, Position.KEY_ACCELERATION, Position.KEY_HUMIDITY, Position.KEY_DEVICE_TEMP,
+            Position.KEY_COOLANT_TEMP, Position.KEY_ENGINE_LOAD, Position.KEY_ENGINE_TEMP, Position.KEY_OPERATOR,
+            Position.KEY_COMMAND, Position.KEY_BLOCKED, Position.KEY_LOCK, Position.KEY_DOOR,
+            Position.KEY_AXLE_WEIGHT, Position.KEY_G_SENSOR, Position.KEY_ICCID, Position.KEY_PHONE,
+            Position.KEY_SPEED_LIMIT, Position.KEY_DRIVING_TIME, Position.KEY_DTCS, Position.KEY_OBD_SPEED,
+            Position.KEY_OBD_ODOMETER, Position.KEY_RESULT, Position.KEY_DRIVER_UNIQUE_ID, Position.KEY_CARD,
+    };
+
+    // append only, ids are persisted
+    private static final String[] PREFIXES = {
+            Position.PREFIX_TEMP, Position.PREFIX_ADC, Position.PREFIX_IO, Position.PREFIX_COUNT,
+            Position.PREFIX_IN, Position.PREFIX_OUT,
+    };
+
+    private static final int PREFIX_CACHE_SIZE = 1024;
+    private static final String[][] PREFIX_KEYS = new String[PREFIXES.length][PREFIX_CACHE_SIZE];
+
+    private static final Map<String, Integer> KEY_IDS = new HashMap<>();
+    private static final Map<String, Integer> PREFIX_IDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEY_IDS.put(KEYS[i], i);
+        }
+        for (int i = 0; i < PREFIXES.length; i++) {
+            PREFIX_IDS.put(PREFIXES[i], i);
+        }
+    }
+
+    private AttributeCodec() {
+    }
+
+    public static byte[] encode(Map<String, Object> attributes, ObjectMapper objectMapper) throws IOException {
+        Output output = new Output();
+        output.writeVarint(attributes.size());
+        for (var entry : attributes.entrySet()) {
+            writeKey(output, entry.getKey());
+            writeValue(output, entry.getValue(), objectMapper);
+        }
+        byte[] body = output.toByteArray();
+
+        if (body.length >= COMPRESSION_THRESHOLD) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(body);
+                deflater.finish();
+                byte[] buffer = new byte[body.length];
+                int length = deflater.deflate(buffer);
+                if (deflater.finished() && length + 5 < body.length) {
+                    Output result = new Output();
+                    result.write(FORMAT_DEFLATE);
+                    result.writeVarint(body.length);
+                    result.write(buffer, 0, length);
+                    return result.toByteArray();
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        byte[] result = new byte[body.length + 1];
+        result[0] = FORMAT_PLAIN;
+        System.arraycopy(body, 0, result, 1, body.length);
+        return result;
+    }
+
+    public static Map<String, Object> decode(byte[] data, ObjectMapper objectMapper) throws IOException {
+        ByteBuffer input = ByteBuffer.wrap(data);
+        int format = input.get();
+        if (format == FORMAT_DEFLATE) {
+            int length = readVarint(input);
+            byte[] body = new byte[length];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, input.position(), input.remaining());
+                if (inflater.inflate(body) != length) {
+                    throw new IOException("Truncated attributes");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            input = ByteBuffer.wrap(body);
+        } else if (format != FORMAT_PLAIN) {
+            throw new IOException("Unknown attributes format " + format);
+        }
+
+        int count = readVarint(input);
+        Map<String, Object> attributes = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = readKey(input);
+            attributes.put(key, readValue(input, objectMapper));
+        }
+        return attributes;
+    }
+
+    private static void writeKey(Output output, String key) {
+        Integer id = KEY_IDS.get(key);
+        if (id != null) {
+            output.writeVarint(id << 2 | KEY_DICTIONARY);
+            return;
+        }
+        int digits = key.length();
+        while (digits > 0 && Character.isDigit(key.charAt(digits - 1))) {
+            digits -= 1;
+        }
+        int numberLength = key.length() - digits;
+        if (numberLength > 0 && numberLength <= 9 && (numberLength == 1 || key.charAt(digits) != '0')) {
+            Integer prefixId = PREFIX_IDS.get(key.substring(0, digits));
+            if (prefixId != null) {
+                output.writeVarint(prefixId << 2 | KEY_PREFIX);
+                output.writeVarint(Integer.parseInt(key.substring(digits)));
+                return;
+            }
+        }
+        output.writeVarint(KEY_LITERAL);
+        output.writeString(key);
+    }
+
+    private static String readKey(ByteBuffer input) throws IOException {
+        int header = readVarint(input);
+        return switch (header & 3) {
+            case KEY_DICTIONARY -> KEYS[header >>> 2];
+            case KEY_PREFIX -> getPrefixKey(header >>> 2, readVarint(input));
+            case KEY_LITERAL -> readString(input);
+            default -> throw new IOException("Unknown key type");
+        };
+    }
+
+    private static String getPrefixKey(int prefixId, int number) {
+        if (number >= PREFIX_CACHE_SIZE) {
+            return PREFIXES[prefixId] + number;
+        }
+        String key = PREFIX_KEYS[prefixId][number];
+        if (key == null) {
+            key = PREFIXES[prefixId] + number;
+            PREFIX_KEYS[prefixId][number] = key;
+        }
+        return key;
+    }
+
+    private static void writeValue(Output output, Object value, ObjectMapper objectMapper) throws IOException {
+        if (value == null) {
+            output.write(TYPE_NULL);
+        } else if (value instanceof Boolean booleanValue) {
+            output.write(booleanValue ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            long number = ((Number) value).longValue();
+            output.write(TYPE_INTEGER);
+            output.writeVarlong((number << 1) ^ (number >> 63));
+        } else if (value instanceof Double || value instanceof Float) {
+            output.write(TYPE_DOUBLE);
+            long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                output.write((int) (bits >>> shift));
+            }
+        } else if (value instanceof String stringValue) {
+            output.write(TYPE_STRING);
+            output.writeString(stringValue);
+        } else {
+            output.write(TYPE_JSON);
+            output.writeString(objectMapper.writeValueAsString(value));
+        }
+    }
+
+    private static Object readValue(ByteBuffer input, ObjectMapper objectMapper) throws IOException {
+        int type = input.get();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_FALSE -> false;
+            case TYPE_TRUE -> true;
+            case TYPE_INTEGER -> {
+                long encoded = readVarlong(input);
+                long number = (encoded >>> 1) ^ -(encoded & 1);
+                yield number == (int) number ? (Object) (int) number : (Object) number; // same as JSON
+            }
+            case TYPE_DOUBLE -> input.getDouble();
+            case TYPE_STRING -> readString(input);
+            case TYPE_JSON -> objectMapper.readValue(readString(input), Object.class);
+            default -> throw new IOException("Unknown value type " + type);
+        };
+    }
+
+    private static int readVarint(ByteBuffer input) {
+        return (int) readVarlong(input);
+    }
+
+    private static long readVarlong(ByteBuffer input) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = input.get();
+            result |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private static String readString(ByteBuffer input) {
+        int length = readVarint(input);
+        String result = new String(input.array(), input.position(), length, StandardCharsets.UTF_8);
+        input.position(input.position() + length);
+        return result;
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(128);
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xffffffffL);
+        }
+
+        void writeVarlong(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.storage;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.name.Named;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import liquibase.Contexts;
@@ -27,8 +28,11 @@ import liquibase.exception.LiquibaseException;
 import liquibase.exception.LockException;
 import liquibase.resource.DirectoryResourceAccessor;
 import liquibase.resource.ResourceAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.helper.StartupTimer;
 
 import jakarta.inject.Singleton;
 import javax.sql.DataSource;
@@ -36,9 +40,29 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseModule extends AbstractModule {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseModule.class);
+
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("<include\\s[^>]*file=\"([^\"]+)\"");
+
     @Singleton
     @Provides
     public static DataSource provideDataSource(
@@ -64,11 +88,109 @@ public class DatabaseModule extends AbstractModule {
             Class.forName(driver);
         }
 
+        HikariConfig hikariConfig = createHikariConfig(config,
+                config.getString(Keys.DATABASE_URL),
+                config.getString(Keys.DATABASE_USER),
+                config.getString(Keys.DATABASE_PASSWORD));
+
+        long start = System.nanoTime();
+        DataSource dataSource = new HikariDataSource(hikariConfig);
+        StartupTimer.record("databasePool", start);
+
+        String changelog = config.getString(Keys.DATABASE_CHANGELOG);
+        if (changelog != null && !changelog.isEmpty()) {
+            start = System.nanoTime();
+            String hash = computeChangelogHash(Paths.get(changelog));
+            if (hash.equals(readChangelogHash(dataSource))) {
+                LOGGER.info("Database schema is up to date, skipping migrations");
+            } else {
+                runMigrations(config, changelog);
+                writeChangelogHash(dataSource, hash);
+            }
+            StartupTimer.record("databaseMigration", start);
+        }
+
+        return dataSource;
+    }
+
+    private static void runMigrations(Config config, String changelog) throws IOException, LiquibaseException {
+        ResourceAccessor resourceAccessor = new DirectoryResourceAccessor(new File("."));
+
+        System.setProperty("liquibase.changelogLockWaitTimeInMinutes", "1");
+        System.setProperty("liquibase.analytics.enabled", "false");
+
+        try {
+            Database database = DatabaseFactory.getInstance().openDatabase(
+                    config.getString(Keys.DATABASE_URL),
+                    config.getString(Keys.DATABASE_USER),
+                    config.getString(Keys.DATABASE_PASSWORD),
+                    config.getString(Keys.DATABASE_DRIVER),
+                    null, null, null, resourceAccessor);
+
+            try (Liquibase liquibase = new Liquibase(changelog, resourceAccessor, database)) {
+                liquibase.clearCheckSums();
+                liquibase.update(new Contexts());
+            }
+        } catch (LockException e) {
+            throw new DatabaseLockException();
+        }
+    }
+
+    /**
+     * SHA-256 of the changelog file and, recursively, all files it includes.
+     */
+    static String computeChangelogHash(Path changelog) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            updateChangelogHash(digest, changelog, new HashSet<>());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void updateChangelogHash(MessageDigest digest, Path file, Set<Path> visited) throws IOException {
+        if (!visited.add(file.toAbsolutePath().normalize())) {
+            return;
+        }
+        byte[] data = Files.readAllBytes(file);
+        digest.update(data);
+        Matcher matcher = INCLUDE_PATTERN.matcher(new String(data, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            Path include = file.resolveSibling(matcher.group(1));
+            updateChangelogHash(digest, Files.exists(include) ? include : Paths.get(matcher.group(1)), visited);
+        }
+    }
+
+    private static String readChangelogHash(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT changeloghash FROM tc_schema_version")) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static void writeChangelogHash(DataSource dataSource, String hash) {
+        try (Connection connection = dataSource.getConnection();
+             Statement delete = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO tc_schema_version (changeloghash) VALUES (?)")) {
+            delete.executeUpdate("DELETE FROM tc_schema_version");
+            insert.setString(1, hash);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to store schema changelog hash", e);
+        }
+    }
+
+    private static HikariConfig createHikariConfig(Config config, String url, String user, String password) {
         HikariConfig hikariConfig = new HikariConfig();
-        hikariConfig.setDriverClassName(driver);
-        hikariConfig.setJdbcUrl(config.getString(Keys.DATABASE_URL));
-        hikariConfig.setUsername(config.getString(Keys.DATABASE_USER));
-        hikariConfig.setPassword(config.getString(Keys.DATABASE_PASSWORD));
+        hikariConfig.setDriverClassName(config.getString(Keys.DATABASE_DRIVER));
+        hikariConfig.setJdbcUrl(url);
+        hikariConfig.setUsername(user);
+        hikariConfig.setPassword(password);
         hikariConfig.setConnectionInitSql(config.getString(Keys.DATABASE_CHECK_CONNECTION));
         hikariConfig.setIdleTimeout(600000);
 
@@ -77,34 +199,52 @@ public class DatabaseModule extends AbstractModule {
             hikariConfig.setMaximumPoolSize(maxPoolSize);
         }
 
-        DataSource dataSource = new HikariDataSource(hikariConfig);
+        if (config.getInteger(Keys.DATABASE_BATCH_SIZE) > 1 && url != null) {
+            if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+                hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+            } else if (url.startsWith("jdbc:postgresql:")) {
+                hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+            }
+        }
 
-        String changelog = config.getString(Keys.DATABASE_CHANGELOG);
-        if (changelog != null && !changelog.isEmpty()) {
+        int statementCacheSize = config.getInteger(Keys.DATABASE_STATEMENT_CACHE_SIZE);
+        if (statementCacheSize > 0 && url != null) {
+            if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+                hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+                hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+                hikariConfig.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+                hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            } else if (url.startsWith("jdbc:postgresql:")) {
+                hikariConfig.addDataSourceProperty(
+                        "preparedStatementCacheQueries", String.valueOf(statementCacheSize));
+            }
+        }
 
-            ResourceAccessor resourceAccessor = new DirectoryResourceAccessor(new File("."));
+        if (url != null && url.startsWith("jdbc:sqlserver:")) {
+            hikariConfig.addDataSourceProperty("responseBuffering", "adaptive");
+        }
 
-            System.setProperty("liquibase.changelogLockWaitTimeInMinutes", "1");
-            System.setProperty("liquibase.analytics.enabled", "false");
+        return hikariConfig;
+    }
 
-            try {
-                Database database = DatabaseFactory.getInstance().openDatabase(
-                        config.getString(Keys.DATABASE_URL),
-                        config.getString(Keys.DATABASE_USER),
-                        config.getString(Keys.DATABASE_PASSWORD),
-                        config.getString(Keys.DATABASE_DRIVER),
-                        null, null, null, resourceAccessor);
-
-                try (Liquibase liquibase = new Liquibase(changelog, resourceAccessor, database)) {
-                    liquibase.clearCheckSums();
-                    liquibase.update(new Contexts());
-                }
-            } catch (LockException e) {
-                throw new DatabaseLockException();
-            }
+    /**
+     * Optional read-only pool for history and report queries. Null if no replica is configured. Depends on the
+     * primary pool so that the driver is loaded and the schema is migrated first.
+     */
+    @Singleton
+    @Provides
+    @Named("replica")
+    public static DataSource provideReplicaDataSource(Config config, DataSource primary) {
+        String url = config.getString(Keys.DATABASE_REPLICA_URL);
+        if (url == null) {
+            return null;
         }
-
-        return dataSource;
+        HikariConfig hikariConfig = createHikariConfig(config, url,
+                config.getString(Keys.DATABASE_REPLICA_USER, config.getString(Keys.DATABASE_USER)),
+                config.getString(Keys.DATABASE_REPLICA_PASSWORD, config.getString(Keys.DATABASE_PASSWORD)));
+        hikariConfig.setPoolName("replica");
+        hikariConfig.setReadOnly(true);
+        return new HikariDataSource(hikariConfig);
     }
 
 }
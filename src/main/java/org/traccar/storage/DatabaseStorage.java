@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,71 +16,148 @@
 package org.traccar.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.name.Named;
 import org.traccar.config.Config;
+import org.traccar.config.Keys;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Group;
 import org.traccar.model.GroupedModel;
 import org.traccar.model.Permission;
+import org.traccar.model.Position;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import javax.sql.DataSource;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class DatabaseStorage extends Storage {
 
+    private static final int TEMPLATE_CACHE_LIMIT = 1000;
+
+    private record Template(String query, List<String> columns) {
+    }
+
+    private interface TemplateFactory {
+        Template create() throws StorageException;
+    }
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
     private final Config config;
     private final DataSource dataSource;
     private final ObjectMapper objectMapper;
     private final String databaseType;
+    private final String driverName;
+    private final boolean binaryAttributes;
+    private final String label;
+    private final DatabaseStorage replica;
 
     @Inject
-    public DatabaseStorage(Config config, DataSource dataSource, ObjectMapper objectMapper) {
+    public DatabaseStorage(
+            Config config, DataSource dataSource, @Named("replica") @Nullable DataSource replicaDataSource,
+            ObjectMapper objectMapper) {
         this.config = config;
         this.dataSource = dataSource;
         this.objectMapper = objectMapper;
+        binaryAttributes = config.getBoolean(Keys.DATABASE_BINARY_ATTRIBUTES);
+        label = null;
 
         try (var connection = dataSource.getConnection()) {
             databaseType = connection.getMetaData().getDatabaseProductName();
+            driverName = connection.getMetaData().getDriverName();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        replica = replicaDataSource != null ? new DatabaseStorage(this, replicaDataSource) : this;
+    }
+
+    private DatabaseStorage(DatabaseStorage primary, DataSource dataSource) {
+        config = primary.config;
+        this.dataSource = dataSource;
+        objectMapper = primary.objectMapper;
+        binaryAttributes = primary.binaryAttributes;
+        label = "replica";
+        databaseType = primary.databaseType;
+        driverName = primary.driverName;
+        replica = this;
+    }
+
+    @Override
+    public Storage replica() {
+        return replica;
     }
 
     @Override
     public <T> List<T> getObjects(Class<T> clazz, Request request) throws StorageException {
-        try (var objects = getObjectsStream(clazz, request)) {
+        try (var objects = queryObjects(clazz, request, false)) {
             return objects.toList();
         }
     }
 
+    @Override
+    public <T> T getObject(Class<T> clazz, Request request) throws StorageException {
+        try (var objects = queryObjects(clazz, request, false)) {
+            return objects.findFirst().orElse(null);
+        }
+    }
+
     @Override
     public <T> Stream<T> getObjectsStream(Class<T> clazz, Request request) throws StorageException {
-        StringBuilder query = new StringBuilder("SELECT ");
-        if (request.getColumns() instanceof Columns.All) {
-            query.append('*');
-        } else {
-            query.append(formatColumns(request.getColumns().getColumns(clazz, "set"), c -> c));
+        return queryObjects(clazz, request, true);
+    }
+
+    private <T> Stream<T> queryObjects(Class<T> clazz, Request request, boolean cursor) throws StorageException {
+        List<Object> values = new ArrayList<>();
+        String key = formatKey("SELECT", clazz, request.getColumns(), request.getCondition(), values);
+        if (key != null && request.getOrder() != null) {
+            Order order = request.getOrder();
+            key += ":" + order.getColumn() + ":" + order.getDescending() + ":" + order.getLimit();
         }
-        query.append(" FROM ").append(getStorageName(clazz));
-        query.append(formatCondition(request.getCondition()));
-        query.append(formatOrder(request.getOrder()));
+        Template template = getTemplate(key, () -> {
+            StringBuilder query = new StringBuilder("SELECT ");
+            if (request.getColumns() instanceof Columns.All) {
+                query.append('*');
+            } else {
+                List<String> columns = request.getColumns().getColumns(clazz, "set");
+                if (clazz.equals(Position.class) && columns.contains("attributes")) {
+                    columns = new ArrayList<>(columns);
+                    columns.add(ModelAccessor.BINARY_ATTRIBUTES);
+                }
+                query.append(formatColumns(columns, c -> c));
+            }
+            query.append(" FROM ").append(getStorageName(clazz));
+            query.append(formatCondition(request.getCondition()));
+            query.append(formatOrder(request.getOrder()));
+            return new Template(query.toString(), null);
+        });
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
-            List<Object> values = getConditionVariables(request.getCondition());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, template.query());
+            builder.setLabel(label);
             for (int index = 0; index < values.size(); index++) {
                 builder.setValue(index, values.get(index));
             }
+            int fetchSize = config.getInteger(Keys.DATABASE_FETCH_SIZE);
+            if (cursor && fetchSize > 0) {
+                if (driverName.startsWith("MySQL")) {
+                    builder.setCursor(Integer.MIN_VALUE, false); // row by row streaming
+                } else {
+                    builder.setCursor(fetchSize, databaseType.equals("PostgreSQL"));
+                }
+            }
             return builder.executeQueryStreamed(clazz);
         } catch (SQLException e) {
             throw new StorageException(e);
@@ -89,37 +166,90 @@ public class DatabaseStorage extends Storage {
 
     @Override
     public <T> long addObject(T entity, Request request) throws StorageException {
-        List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
-        StringBuilder query = new StringBuilder("INSERT INTO ");
-        query.append(getStorageName(entity.getClass()));
-        query.append("(");
-        query.append(formatColumns(columns, c -> c));
-        query.append(") VALUES (");
-        query.append(formatColumns(columns, c -> "?"));
-        query.append(")");
+        Template template = getInsertTemplate(entity.getClass(), request.getColumns());
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
-            builder.setObject(entity, columns);
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, template.query(), true);
+            builder.setObject(entity, template.columns());
             return builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
         }
     }
 
+    @Override
+    public <T> List<Long> addObjects(List<T> entities, Request request) throws StorageException {
+        if (entities.size() <= 1 || databaseType.equals("Microsoft SQL Server")) {
+            return super.addObjects(entities, request); // no generated keys for batches
+        }
+        Template template = getInsertTemplate(entities.get(0).getClass(), request.getColumns());
+        try {
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, template.query(), true);
+            for (T entity : entities) {
+                builder.setObject(entity, template.columns());
+                builder.addBatch();
+            }
+            return builder.executeBatch();
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    protected int getParameterLimit() {
+        return switch (databaseType) {
+            case "Microsoft SQL Server" -> 2000;
+            case "PostgreSQL" -> 30000;
+            case "MySQL", "MariaDB" -> 60000;
+            default -> 1000;
+        };
+    }
+
+    /**
+     * With binary attributes enabled, position attributes are written only to the binary column and the JSON column
+     * of new rows stays empty.
+     */
+    private List<String> mapWriteColumns(Class<?> clazz, List<String> columns) {
+        if (binaryAttributes && clazz.equals(Position.class)) {
+            return columns.stream()
+                    .map(c -> c.equals("attributes") ? ModelAccessor.BINARY_ATTRIBUTES : c)
+                    .toList();
+        }
+        return columns;
+    }
+
+    private Template getInsertTemplate(Class<?> clazz, Columns requestColumns) throws StorageException {
+        return getTemplate(formatKey("INSERT", clazz, requestColumns, null, null), () -> {
+            List<String> columns = mapWriteColumns(clazz, requestColumns.getColumns(clazz, "get"));
+            StringBuilder query = new StringBuilder("INSERT INTO ");
+            query.append(getStorageName(clazz));
+            query.append("(");
+            query.append(formatColumns(columns, c -> c));
+            query.append(") VALUES (");
+            query.append(formatColumns(columns, c -> "?"));
+            query.append(")");
+            return new Template(query.toString(), columns);
+        });
+    }
+
     @Override
     public <T> void updateObject(T entity, Request request) throws StorageException {
-        List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
-        StringBuilder query = new StringBuilder("UPDATE ");
-        query.append(getStorageName(entity.getClass()));
-        query.append(" SET ");
-        query.append(formatColumns(columns, c -> c + " = ?"));
-        query.append(formatCondition(request.getCondition()));
+        Class<?> clazz = entity.getClass();
+        List<Object> values = new ArrayList<>();
+        String key = formatKey("UPDATE", clazz, request.getColumns(), request.getCondition(), values);
+        Template template = getTemplate(key, () -> {
+            List<String> columns = mapWriteColumns(clazz, request.getColumns().getColumns(clazz, "get"));
+            StringBuilder query = new StringBuilder("UPDATE ");
+            query.append(getStorageName(clazz));
+            query.append(" SET ");
+            query.append(formatColumns(columns, c -> c + " = ?"));
+            query.append(formatCondition(request.getCondition()));
+            return new Template(query.toString(), columns);
+        });
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
-            builder.setObject(entity, columns);
-            List<Object> values = getConditionVariables(request.getCondition());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, template.query());
+            builder.setObject(entity, template.columns());
             for (int index = 0; index < values.size(); index++) {
-                builder.setValue(columns.size() + index, values.get(index));
+                builder.setValue(template.columns().size() + index, values.get(index));
             }
             builder.executeUpdate();
         } catch (SQLException e) {
@@ -129,12 +259,12 @@ public class DatabaseStorage extends Storage {
 
     @Override
     public void removeObject(Class<?> clazz, Request request) throws StorageException {
-        StringBuilder query = new StringBuilder("DELETE FROM ");
-        query.append(getStorageName(clazz));
-        query.append(formatCondition(request.getCondition()));
+        List<Object> values = new ArrayList<>();
+        String key = formatKey("DELETE", clazz, null, request.getCondition(), values);
+        Template template = getTemplate(key, () -> new Template(
+                "DELETE FROM " + getStorageName(clazz) + formatCondition(request.getCondition()), null));
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
-            List<Object> values = getConditionVariables(request.getCondition());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, template.query());
             for (int index = 0; index < values.size(); index++) {
                 builder.setValue(index, values.get(index));
             }
@@ -161,7 +291,8 @@ public class DatabaseStorage extends Storage {
         query.append(formatCondition(combinedCondition));
         try {
             QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
-            List<Object> values = getConditionVariables(combinedCondition);
+            List<Object> values = new ArrayList<>();
+            formatConditionKey(combinedCondition, new StringBuilder(), values);
             for (int index = 0; index < values.size(); index++) {
                 builder.setValue(index, values.get(index));
             }
@@ -216,28 +347,73 @@ public class DatabaseStorage extends Storage {
         return storageName.value();
     }
 
-    private List<Object> getConditionVariables(Condition genericCondition) {
-        List<Object> results = new ArrayList<>();
-        if (genericCondition instanceof Condition.Compare condition) {
-            results.add(condition.getValue());
+    private Template getTemplate(String key, TemplateFactory factory) throws StorageException {
+        if (key == null) {
+            return factory.create();
+        }
+        Template template = templates.get(key);
+        if (template == null) {
+            template = factory.create();
+            if (templates.size() < TEMPLATE_CACHE_LIMIT) {
+                templates.putIfAbsent(key, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Builds statement cache key and collects condition variables in a single pass. Returns null if the statement
+     * should not be cached.
+     */
+    private String formatKey(
+            String operation, Class<?> clazz, Columns columns, Condition condition, List<Object> values) {
+        StringBuilder key = new StringBuilder(operation).append(':').append(clazz.getName());
+        String columnsKey = columns != null ? columns.getKey() : "";
+        key.append(':').append(columnsKey);
+        boolean cacheable = formatConditionKey(condition, key.append(':'), values);
+        return cacheable && columnsKey != null ? key.toString() : null;
+    }
+
+    private boolean formatConditionKey(Condition genericCondition, StringBuilder key, List<Object> values) {
+        if (genericCondition == null) {
+            return true;
+        } else if (genericCondition instanceof Condition.Compare condition) {
+            key.append(condition.getColumn()).append(condition.getOperator()).append('?');
+            values.add(condition.getValue());
         } else if (genericCondition instanceof Condition.Between condition) {
-            results.add(condition.getFromValue());
-            results.add(condition.getToValue());
+            key.append(condition.getColumn()).append("<>");
+            values.add(condition.getFromValue());
+            values.add(condition.getToValue());
+        } else if (genericCondition instanceof Condition.In condition) {
+            values.addAll(condition.getValues());
+            return false; // variable number of parameters
         } else if (genericCondition instanceof Condition.Binary condition) {
-            results.addAll(getConditionVariables(condition.getFirst()));
-            results.addAll(getConditionVariables(condition.getSecond()));
+            key.append('(');
+            boolean first = formatConditionKey(condition.getFirst(), key, values);
+            key.append(' ').append(condition.getOperator()).append(' ');
+            boolean second = formatConditionKey(condition.getSecond(), key, values);
+            key.append(')');
+            return first && second;
         } else if (genericCondition instanceof Condition.Permission condition) {
             long conditionId = condition.getOwnerId() > 0 ? condition.getOwnerId() : condition.getPropertyId();
-            results.add(conditionId);
+            key.append("permission:").append(condition.getOwnerClass().getName())
+                    .append(condition.getOwnerId() > 0 ? '>' : '<')
+                    .append(condition.getPropertyClass().getName())
+                    .append(condition.getIncludeGroups() ? "+" : "");
+            values.add(conditionId);
             if (condition.getIncludeGroups()) {
-                results.add(conditionId);
+                values.add(conditionId);
             }
         } else if (genericCondition instanceof Condition.LatestPositions condition) {
+            key.append("latest");
             if (condition.getDeviceId() > 0) {
-                results.add(condition.getDeviceId());
+                key.append('?');
+                values.add(condition.getDeviceId());
             }
+        } else {
+            return false;
         }
-        return results;
+        return true;
     }
 
     private String formatColumns(List<String> columns, Function<String, String> mapper) {
@@ -266,6 +442,17 @@ public class DatabaseStorage extends Storage {
                 result.append(condition.getColumn());
                 result.append(" BETWEEN ? AND ?");
 
+            } else if (genericCondition instanceof Condition.In condition) {
+
+                if (condition.getValues().isEmpty()) {
+                    result.append("1 = 0");
+                } else {
+                    result.append(condition.getColumn());
+                    result.append(" IN (");
+                    result.append(condition.getValues().stream().map(v -> "?").collect(Collectors.joining(", ")));
+                    result.append(")");
+                }
+
             } else if (genericCondition instanceof Condition.Binary condition) {
 
                 if (genericCondition instanceof Condition.Or) {
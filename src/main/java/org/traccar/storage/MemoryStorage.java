@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,28 +15,95 @@
  */
 package org.traccar.storage;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
 import org.traccar.helper.ReflectionCache;
 import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
 import org.traccar.model.Pair;
 import org.traccar.model.Permission;
+import org.traccar.model.Position;
 import org.traccar.model.Server;
 import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 
+/**
+ * Thread-safe in-memory storage. Objects are kept by id with secondary indexes on device id (ordered by time for
+ * positions and events) and device unique id. Stored objects are copied on every read and write, so callers never
+ * share instances with the storage.
+ */
 public class MemoryStorage extends Storage {
 
-    private final Map<Class<?>, Map<Long, Object>> objects = new HashMap<>();
-    private final Map<Pair<Class<?>, Class<?>>, Set<Pair<Long, Long>>> permissions = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryStorage.class);
+
+    private static final Map<Class<?>, String> TIME_COLUMNS = Map.of(
+            Position.class, "fixTime",
+            Event.class, "eventTime");
+
+    private record TimeKey(long time, long id) implements Comparable<TimeKey> {
+        @Override
+        public int compareTo(TimeKey other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    private record Accessor(String name, Method getter, Method setter) {
+    }
+
+    private record Scan(String column, Iterable<Object> ascending, Iterable<Object> descending) {
+    }
+
+    private static final class PermissionSet {
+        private final Map<Long, Set<Long>> byOwner = new HashMap<>();
+        private final Map<Long, Set<Long>> byProperty = new HashMap<>();
+    }
+
+    private static final Map<Class<?>, List<Accessor>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Class<?>, NavigableMap<Long, Object>> objects = new HashMap<>();
+    private final Map<Class<?>, Map<Long, NavigableSet<TimeKey>>> deviceIndex = new HashMap<>();
+    private final Map<String, Long> uniqueIdIndex = new HashMap<>();
+    private final Map<Pair<Class<?>, Class<?>>, PermissionSet> permissions = new HashMap<>();
 
     private final AtomicLong increment = new AtomicLong();
 
@@ -44,21 +111,438 @@ public class MemoryStorage extends Storage {
         Server server = new Server();
         server.setId(1);
         server.setRegistration(true);
-        objects.put(Server.class, Map.of(server.getId(), server));
+        insert(server);
+    }
+
+    @Inject
+    public MemoryStorage(Config config, ObjectMapper objectMapper) throws IOException {
+        this();
+        String snapshot = config.getString(Keys.DATABASE_MEMORY_SNAPSHOT);
+        if (snapshot != null && Files.exists(Paths.get(snapshot))) {
+            try (InputStream inputStream = Files.newInputStream(Paths.get(snapshot))) {
+                readSnapshot(inputStream, objectMapper);
+            }
+            LOGGER.info("Memory storage snapshot loaded from {}", snapshot);
+        }
     }
 
     @Override
     public <T> List<T> getObjects(Class<T> clazz, Request request) {
-        try (var objects = getObjectsStream(clazz, request)) {
-            return objects.toList();
+        lock.readLock().lock();
+        try {
+            return select(clazz, request.getCondition(), request.getOrder()).stream()
+                    .map(object -> clazz.cast(copy(object)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
     @Override
     public <T> Stream<T> getObjectsStream(Class<T> clazz, Request request) {
-        return objects.computeIfAbsent(clazz, key -> new HashMap<>()).values().stream()
-                .filter(object -> checkCondition(request.getCondition(), object))
-                .map(object -> (T) object);
+        return getObjects(clazz, request).stream();
+    }
+
+    @Override
+    public <T> long addObject(T entity, Request request) {
+        long id = increment.incrementAndGet();
+        Object object = copy(entity);
+        if (object instanceof BaseModel model) {
+            model.setId(id);
+        }
+        lock.writeLock().lock();
+        try {
+            insert(object);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return id;
+    }
+
+    @Override
+    public <T> void updateObject(T entity, Request request) {
+        List<Accessor> accessors = getAccessors(entity.getClass());
+        Set<String> columns = new HashSet<>(request.getColumns().getColumns(entity.getClass(), "get"));
+        lock.writeLock().lock();
+        try {
+            for (Object before : select(entity.getClass(), request.getCondition(), null)) {
+                Object after = copy(before);
+                for (Accessor accessor : accessors) {
+                    if (columns.contains(accessor.name())) {
+                        accessor.setter().invoke(after, new Object[] {copyValue(accessor.getter().invoke(entity))});
+                    }
+                }
+                delete(before);
+                insert(after);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeObject(Class<?> clazz, Request request) {
+        lock.writeLock().lock();
+        try {
+            for (Object object : select(clazz, request.getCondition(), null)) {
+                delete(object);
+                long id = getId(object);
+                permissions.forEach((classes, set) -> {
+                    if (classes.first().equals(clazz)) {
+                        set.byOwner.getOrDefault(id, Set.of()).forEach(
+                                propertyId -> removeValue(set.byProperty, propertyId, id));
+                        set.byOwner.remove(id);
+                    }
+                    if (classes.second().equals(clazz)) {
+                        set.byProperty.getOrDefault(id, Set.of()).forEach(
+                                ownerId -> removeValue(set.byOwner, ownerId, id));
+                        set.byProperty.remove(id);
+                    }
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Permission> getPermissions(
+            Class<? extends BaseModel> ownerClass, long ownerId,
+            Class<? extends BaseModel> propertyClass, long propertyId) {
+        lock.readLock().lock();
+        try {
+            PermissionSet set = permissions.get(new Pair<>(ownerClass, propertyClass));
+            if (set == null) {
+                return List.of();
+            }
+            List<Permission> result = new ArrayList<>();
+            if (ownerId > 0) {
+                for (long id : set.byOwner.getOrDefault(ownerId, Set.of())) {
+                    if (propertyId == 0 || id == propertyId) {
+                        result.add(new Permission(ownerClass, ownerId, propertyClass, id));
+                    }
+                }
+            } else if (propertyId > 0) {
+                for (long id : set.byProperty.getOrDefault(propertyId, Set.of())) {
+                    result.add(new Permission(ownerClass, id, propertyClass, propertyId));
+                }
+            } else {
+                set.byOwner.forEach((owner, properties) -> properties.forEach(
+                        property -> result.add(new Permission(ownerClass, owner, propertyClass, property))));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addPermission(Permission permission) {
+        lock.writeLock().lock();
+        try {
+            link(permission);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removePermission(Permission permission) {
+        lock.writeLock().lock();
+        try {
+            PermissionSet set = permissions.get(new Pair<>(permission.getOwnerClass(), permission.getPropertyClass()));
+            if (set != null) {
+                removeValue(set.byOwner, permission.getOwnerId(), permission.getPropertyId());
+                removeValue(set.byProperty, permission.getPropertyId(), permission.getOwnerId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all objects and permissions as JSON. Rows are collected under the read lock and serialized after it is
+     * released. Stored objects are replaced rather than modified on update, so the collected values stay unchanged.
+     */
+    public void writeSnapshot(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            snapshot.put("increment", increment.get());
+            Map<String, List<Map<String, Object>>> tables = new LinkedHashMap<>();
+            for (var entry : objects.entrySet()) {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for (Object object : entry.getValue().values()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (Accessor accessor : getAccessors(object.getClass())) {
+                        row.put(accessor.name(), accessor.getter().invoke(object));
+                    }
+                    rows.add(row);
+                }
+                tables.put(entry.getKey().getName(), rows);
+            }
+            snapshot.put("objects", tables);
+            List<List<Object>> links = new ArrayList<>();
+            permissions.forEach((classes, set) -> set.byOwner.forEach((owner, properties) -> properties.forEach(
+                    property -> links.add(List.of(
+                            Permission.getKey(classes.first()), owner,
+                            Permission.getKey(classes.second()), property)))));
+            snapshot.put("permissions", links);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        objectMapper.writeValue(outputStream, snapshot);
+    }
+
+    public void writeSnapshot(Path path, ObjectMapper objectMapper) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+            writeSnapshot(outputStream, objectMapper);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void readSnapshot(InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+        Map<String, Object> snapshot = objectMapper.readValue(inputStream, new TypeReference<>() {
+        });
+        lock.writeLock().lock();
+        try {
+            objects.clear();
+            deviceIndex.clear();
+            uniqueIdIndex.clear();
+            permissions.clear();
+            increment.set(((Number) snapshot.get("increment")).longValue());
+            var tables = objectMapper.convertValue(
+                    snapshot.get("objects"), new TypeReference<Map<String, List<Map<String, Object>>>>() {
+                    });
+            for (var entry : tables.entrySet()) {
+                Class<?> clazz = getModelClass(entry.getKey());
+                List<Accessor> accessors = getAccessors(clazz);
+                for (Map<String, Object> row : entry.getValue()) {
+                    Object object = clazz.getConstructor().newInstance();
+                    for (Accessor accessor : accessors) {
+                        if (row.get(accessor.name()) != null) {
+                            Object value = objectMapper.convertValue(
+                                    row.get(accessor.name()),
+                                    objectMapper.constructType(accessor.setter().getGenericParameterTypes()[0]));
+                            accessor.setter().invoke(object, value);
+                        }
+                    }
+                    insert(object);
+                }
+            }
+            var links = objectMapper.convertValue(
+                    snapshot.get("permissions"), new TypeReference<List<List<Object>>>() {
+                    });
+            for (List<Object> link : links) {
+                Permission permission = new Permission(
+                        Permission.getKeyClass((String) link.get(0)), ((Number) link.get(1)).longValue(),
+                        Permission.getKeyClass((String) link.get(2)), ((Number) link.get(3)).longValue());
+                link(permission);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Class<?> getModelClass(String name) throws IOException {
+        int separator = name.lastIndexOf('.');
+        if (separator < 0 || !name.substring(0, separator).equals(BaseModel.class.getPackageName())) {
+            throw new IOException("Unsupported snapshot class " + name);
+        }
+        try {
+            Class<?> clazz = Class.forName(name, false, BaseModel.class.getClassLoader());
+            if (!BaseModel.class.isAssignableFrom(clazz)) {
+                throw new IOException("Unsupported snapshot class " + name);
+            }
+            return clazz;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void link(Permission permission) {
+        PermissionSet set = permissions.computeIfAbsent(
+                new Pair<>(permission.getOwnerClass(), permission.getPropertyClass()), k -> new PermissionSet());
+        set.byOwner.computeIfAbsent(permission.getOwnerId(), k -> new TreeSet<>()).add(permission.getPropertyId());
+        set.byProperty.computeIfAbsent(permission.getPropertyId(), k -> new TreeSet<>()).add(permission.getOwnerId());
+    }
+
+    private void insert(Object object) {
+        long id = getId(object);
+        Class<?> clazz = object.getClass();
+        objects.computeIfAbsent(clazz, k -> new TreeMap<>()).put(id, object);
+        if (object instanceof Device device && device.getUniqueId() != null) {
+            uniqueIdIndex.put(device.getUniqueId(), id);
+        }
+        Long deviceId = getDeviceId(object);
+        if (deviceId != null) {
+            deviceIndex.computeIfAbsent(clazz, k -> new HashMap<>())
+                    .computeIfAbsent(deviceId, k -> new TreeSet<>())
+                    .add(getTimeKey(object));
+        }
+    }
+
+    private void delete(Object object) {
+        long id = getId(object);
+        Class<?> clazz = object.getClass();
+        objects.getOrDefault(clazz, new TreeMap<>()).remove(id);
+        if (object instanceof Device device && device.getUniqueId() != null) {
+            uniqueIdIndex.remove(device.getUniqueId(), id);
+        }
+        Long deviceId = getDeviceId(object);
+        if (deviceId != null) {
+            deviceIndex.getOrDefault(clazz, Map.of()).computeIfPresent(deviceId, (k, keys) -> {
+                keys.remove(getTimeKey(object));
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private List<Object> select(Class<?> clazz, Condition condition, Order order) {
+        NavigableMap<Long, Object> table = objects.getOrDefault(clazz, new TreeMap<>());
+        Scan scan = plan(clazz, table, condition);
+
+        if (order == null) {
+            List<Object> result = new ArrayList<>();
+            for (Object object : scan.ascending()) {
+                if (checkCondition(condition, object)) {
+                    result.add(object);
+                }
+            }
+            return result;
+        }
+
+        int limit = order.getLimit() > 0 ? order.getLimit() : Integer.MAX_VALUE;
+        if (order.getColumn().equals(scan.column())) {
+            List<Object> result = new ArrayList<>();
+            for (Object object : order.getDescending() ? scan.descending() : scan.ascending()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (checkCondition(condition, object)) {
+                    result.add(object);
+                }
+            }
+            return result;
+        }
+
+        Comparator<Object> comparator = Comparator.comparing(
+                object -> (Comparable<Object>) retrieveValue(object, order.getColumn()),
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (order.getDescending()) {
+            comparator = comparator.reversed();
+        }
+        PriorityQueue<Object> queue = new PriorityQueue<>(comparator.reversed());
+        for (Object object : scan.ascending()) {
+            if (checkCondition(condition, object)) {
+                queue.add(object);
+                if (queue.size() > limit) {
+                    queue.poll();
+                }
+            }
+        }
+        List<Object> result = new ArrayList<>(queue);
+        result.sort(comparator);
+        return result;
+    }
+
+    private Scan plan(Class<?> clazz, NavigableMap<Long, Object> table, Condition condition) {
+        List<Condition> conditions = new ArrayList<>();
+        flatten(condition, conditions);
+
+        for (Condition item : conditions) {
+            if (item instanceof Condition.Equals equals && equals.getColumn().equals("id")) {
+                return idScan(table, List.of(((Number) equals.getValue()).longValue()));
+            } else if (item instanceof Condition.In in && in.getColumn().equals("id")) {
+                return idScan(table, in.getValues().stream().map(value -> ((Number) value).longValue()).toList());
+            } else if (item instanceof Condition.Equals equals && equals.getColumn().equals("uniqueId")
+                    && clazz.equals(Device.class)) {
+                Long id = uniqueIdIndex.get((String) equals.getValue());
+                return idScan(table, id != null ? List.of(id) : List.of());
+            } else if (item instanceof Condition.Permission permission) {
+                PermissionSet set = permissions.get(
+                        new Pair<>(permission.getOwnerClass(), permission.getPropertyClass()));
+                if (set == null) {
+                    return idScan(table, List.of());
+                } else if (permission.getOwnerId() > 0 && clazz.equals(permission.getPropertyClass())) {
+                    return idScan(table, set.byOwner.getOrDefault(permission.getOwnerId(), Set.of()));
+                } else if (permission.getPropertyId() > 0 && clazz.equals(permission.getOwnerClass())) {
+                    return idScan(table, set.byProperty.getOrDefault(permission.getPropertyId(), Set.of()));
+                }
+            } else if (item instanceof Condition.LatestPositions latest) {
+                var devices = objects.getOrDefault(Device.class, new TreeMap<>());
+                var deviceStream = latest.getDeviceId() > 0
+                        ? Stream.ofNullable(devices.get(latest.getDeviceId())) : devices.values().stream();
+                return idScan(table, deviceStream.map(device -> ((Device) device).getPositionId()).toList());
+            }
+        }
+
+        for (Condition item : conditions) {
+            if (item instanceof Condition.Equals equals && equals.getColumn().equals("deviceId")
+                    && deviceIndex.containsKey(clazz)) {
+                NavigableSet<TimeKey> keys = deviceIndex.get(clazz).getOrDefault(
+                        ((Number) equals.getValue()).longValue(), new TreeSet<>());
+                String timeColumn = TIME_COLUMNS.get(clazz);
+                if (timeColumn != null) {
+                    keys = narrowTime(keys, timeColumn, conditions);
+                }
+                NavigableSet<TimeKey> range = keys;
+                return new Scan(
+                        timeColumn != null ? timeColumn : "id",
+                        () -> range.stream().map(key -> table.get(key.id())).iterator(),
+                        () -> range.descendingSet().stream().map(key -> table.get(key.id())).iterator());
+            }
+        }
+
+        return new Scan("id", table.values(), table.descendingMap().values());
+    }
+
+    private static Scan idScan(NavigableMap<Long, Object> table, Collection<Long> ids) {
+        NavigableSet<Long> sorted = new TreeSet<>(ids);
+        return new Scan(
+                "id",
+                () -> sorted.stream().map(table::get).filter(Objects::nonNull).iterator(),
+                () -> sorted.descendingSet().stream().map(table::get).filter(Objects::nonNull).iterator());
+    }
+
+    private static NavigableSet<TimeKey> narrowTime(
+            NavigableSet<TimeKey> keys, String timeColumn, List<Condition> conditions) {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        for (Condition item : conditions) {
+            if (item instanceof Condition.Between between && between.getColumn().equals(timeColumn)) {
+                from = Math.max(from, ((Date) between.getFromValue()).getTime());
+                to = Math.min(to, ((Date) between.getToValue()).getTime());
+            } else if (item instanceof Condition.Compare compare && compare.getColumn().equals(timeColumn)
+                    && compare.getValue() instanceof Date date) {
+                switch (compare.getOperator()) {
+                    case ">", ">=" -> from = Math.max(from, date.getTime());
+                    case "<", "<=" -> to = Math.min(to, date.getTime());
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (from > to) {
+            return new TreeSet<>();
+        }
+        return keys.subSet(new TimeKey(from, Long.MIN_VALUE), true, new TimeKey(to, Long.MAX_VALUE), true);
+    }
+
+    private static void flatten(Condition condition, List<Condition> result) {
+        if (condition instanceof Condition.Binary binary && binary.getOperator().equals("AND")) {
+            flatten(binary.getFirst(), result);
+            flatten(binary.getSecond(), result);
+        } else if (condition != null) {
+            result.add(condition);
+        }
     }
 
     private boolean checkCondition(Condition genericCondition, Object object) {
@@ -69,6 +553,9 @@ public class MemoryStorage extends Storage {
         if (genericCondition instanceof Condition.Compare condition) {
 
             Object value = retrieveValue(object, condition.getColumn());
+            if (value == null || condition.getValue() == null) {
+                return false;
+            }
             int result = ((Comparable) value).compareTo(condition.getValue());
             return switch (condition.getOperator()) {
                 case "<" -> result < 0;
@@ -81,12 +568,18 @@ public class MemoryStorage extends Storage {
 
         } else if (genericCondition instanceof Condition.Between condition) {
 
-            Object fromValue = retrieveValue(object, condition.getColumn());
-            int fromResult = ((Comparable) fromValue).compareTo(condition.getFromValue());
-            Object toValue = retrieveValue(object, condition.getColumn());
-            int toResult = ((Comparable) toValue).compareTo(condition.getToValue());
+            Object value = retrieveValue(object, condition.getColumn());
+            if (value == null) {
+                return false;
+            }
+            int fromResult = ((Comparable) value).compareTo(condition.getFromValue());
+            int toResult = ((Comparable) value).compareTo(condition.getToValue());
             return fromResult >= 0 && toResult <= 0;
 
+        } else if (genericCondition instanceof Condition.In condition) {
+
+            return condition.getValues().contains(retrieveValue(object, condition.getColumn()));
+
         } else if (genericCondition instanceof Condition.Binary condition) {
 
             if (condition.getOperator().equals("AND")) {
@@ -97,26 +590,52 @@ public class MemoryStorage extends Storage {
 
         } else if (genericCondition instanceof Condition.Permission condition) {
 
-            long id = (Long) retrieveValue(object, "id");
-            return getPermissionsSet(condition.getOwnerClass(), condition.getPropertyClass()).stream()
-                    .anyMatch(pair -> {
-                        if (condition.getOwnerId() > 0) {
-                            return pair.first() == condition.getOwnerId() && pair.second() == id;
-                        } else {
-                            return pair.first() == id && pair.second() == condition.getPropertyId();
-                        }
-                    });
+            PermissionSet set = permissions.get(new Pair<>(condition.getOwnerClass(), condition.getPropertyClass()));
+            if (set == null) {
+                return false;
+            }
+            long id = getId(object);
+            if (condition.getOwnerId() > 0) {
+                return set.byOwner.getOrDefault(condition.getOwnerId(), Set.of()).contains(id);
+            } else {
+                return set.byProperty.getOrDefault(condition.getPropertyId(), Set.of()).contains(id);
+            }
 
-        } else if (genericCondition instanceof Condition.LatestPositions) {
+        } else if (genericCondition instanceof Condition.LatestPositions condition) {
 
-            return false;
+            var devices = objects.getOrDefault(Device.class, new TreeMap<>());
+            long id = getId(object);
+            if (condition.getDeviceId() > 0) {
+                return devices.get(condition.getDeviceId()) instanceof Device device && device.getPositionId() == id;
+            }
+            return devices.values().stream().anyMatch(device -> ((Device) device).getPositionId() == id);
 
         }
 
         return false;
     }
 
-    private Object retrieveValue(Object object, String key) {
+    private static long getId(Object object) {
+        return object instanceof BaseModel model ? model.getId() : (Long) retrieveValue(object, "id");
+    }
+
+    private static Long getDeviceId(Object object) {
+        if (object instanceof Position position) {
+            return position.getDeviceId();
+        } else if (object instanceof Event event) {
+            return event.getDeviceId();
+        }
+        var getter = ReflectionCache.getProperties(object.getClass(), "get").get("deviceId");
+        return getter != null ? (Long) retrieveValue(object, "deviceId") : null;
+    }
+
+    private static TimeKey getTimeKey(Object object) {
+        String timeColumn = TIME_COLUMNS.get(object.getClass());
+        Date time = timeColumn != null ? (Date) retrieveValue(object, timeColumn) : null;
+        return new TimeKey(time != null ? time.getTime() : 0, getId(object));
+    }
+
+    private static Object retrieveValue(Object object, String key) {
         try {
             Method method = ReflectionCache.getProperties(object.getClass(), "get").get(key).method();
             return method.invoke(object);
@@ -125,68 +644,50 @@ public class MemoryStorage extends Storage {
         }
     }
 
-    @Override
-    public <T> long addObject(T entity, Request request) {
-        long id = increment.incrementAndGet();
-        objects.computeIfAbsent(entity.getClass(), key -> new HashMap<>()).put(id, entity);
-        return id;
+    private static void removeValue(Map<Long, Set<Long>> map, long key, long value) {
+        map.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
     }
 
-    @Override
-    public <T> void updateObject(T entity, Request request) {
-        Collection<Object> items;
-        if (request.getCondition() != null) {
-            long id = (Long) ((Condition.Equals) request.getCondition()).getValue();
-            items = List.of(objects.computeIfAbsent(entity.getClass(), key -> new HashMap<>()).get(id));
-        } else {
-            items = objects.computeIfAbsent(entity.getClass(), key -> new HashMap<>()).values();
-        }
-        var getters = ReflectionCache.getProperties(entity.getClass(), "get");
-        var setters = ReflectionCache.getProperties(entity.getClass(), "set");
-        for (String column : request.getColumns().getColumns(entity.getClass(), "get")) {
-            try {
-                Method setter = setters.get(column).method();
-                Object value = getters.get(column).method().invoke(entity);
-                for (Object object : items) {
-                    setter.invoke(object, value);
+    private static List<Accessor> getAccessors(Class<?> clazz) {
+        return ACCESSORS.computeIfAbsent(clazz, key -> {
+            var setters = ReflectionCache.getProperties(clazz, "set");
+            List<Accessor> accessors = new ArrayList<>();
+            ReflectionCache.getProperties(clazz, "get").forEach((name, getter) -> {
+                var setter = setters.get(name);
+                if (setter != null
+                        && setter.method().getParameterTypes()[0].equals(getter.method().getReturnType())) {
+                    accessors.add(new Accessor(name, getter.method(), setter.method()));
                 }
-            } catch (ReflectiveOperationException e) {
-                throw new RuntimeException(e);
-            }
-        }
-    }
-
-    @Override
-    public void removeObject(Class<?> clazz, Request request) {
-        long id = (Long) ((Condition.Equals) request.getCondition()).getValue();
-        objects.computeIfAbsent(clazz, key -> new HashMap<>()).remove(id);
-    }
-
-    private Set<Pair<Long, Long>> getPermissionsSet(Class<?> ownerClass, Class<?> propertyClass) {
-        return permissions.computeIfAbsent(new Pair<>(ownerClass, propertyClass), k -> new HashSet<>());
-    }
-
-    @Override
-    public List<Permission> getPermissions(
-            Class<? extends BaseModel> ownerClass, long ownerId,
-            Class<? extends BaseModel> propertyClass, long propertyId) {
-        return getPermissionsSet(ownerClass, propertyClass).stream()
-                .filter(pair -> ownerId == 0 || pair.first().equals(ownerId))
-                .filter(pair -> propertyId == 0 || pair.second().equals(propertyId))
-                .map(pair -> new Permission(ownerClass, pair.first(), propertyClass, pair.second()))
-                .toList();
+            });
+            return accessors;
+        });
     }
 
-    @Override
-    public void addPermission(Permission permission) {
-        getPermissionsSet(permission.getOwnerClass(), permission.getPropertyClass())
-                .add(new Pair<>(permission.getOwnerId(), permission.getPropertyId()));
+    private static Object copyValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return new LinkedHashMap<>(map);
+        } else if (value instanceof Date date) {
+            return new Date(date.getTime());
+        }
+        return value;
     }
 
-    @Override
-    public void removePermission(Permission permission) {
-        getPermissionsSet(permission.getOwnerClass(), permission.getPropertyClass())
-                .remove(new Pair<>(permission.getOwnerId(), permission.getPropertyId()));
+    private static Object copy(Object object) {
+        try {
+            Object result = object.getClass().getConstructor().newInstance();
+            for (Accessor accessor : getAccessors(object.getClass())) {
+                Object value = accessor.getter().invoke(object);
+                if (value != null) {
+                    accessor.setter().invoke(result, copyValue(value));
+                }
+            }
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
     }
 
 }
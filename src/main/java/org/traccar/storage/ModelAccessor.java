@@ -0,0 +1,304 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.traccar.helper.ReflectionCache;
+
+import java.io.IOException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compiled accessors for model classes. Constructors, getters and setters are bound once per class and object mapper
+ * using LambdaMetafactory, and result set column mappings are resolved once per class and column layout.
+ */
+public final class ModelAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Virtual column holding attributes in {@link AttributeCodec} format.
+     */
+    static final String BINARY_ATTRIBUTES = "attributesData";
+
+    private record Key(Class<?> clazz, ObjectMapper objectMapper) {
+    }
+
+    private static final Map<Key, ModelAccessor> CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, BiConsumer<Object, Object>>> COPIERS = new ConcurrentHashMap<>();
+
+    interface BooleanSetter {
+        void accept(Object object, boolean value);
+    }
+
+    interface ColumnReader {
+        void read(Object object, ResultSet resultSet, int column) throws SQLException, IOException;
+    }
+
+    interface ValueWriter {
+        void write(QueryBuilder builder, int index, Object object) throws SQLException, IOException;
+    }
+
+    record RowMapping(int[] columns, ColumnReader[] readers) {
+    }
+
+    private final Supplier<Object> constructor;
+    private final Map<String, Method> setters = new HashMap<>();
+    private final Map<String, Method> getters;
+    private final Map<String, RowMapping> mappings = new ConcurrentHashMap<>();
+    private final Map<String, ValueWriter> writers = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+
+    private ModelAccessor(Class<?> clazz, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        constructor = compileConstructor(clazz);
+        ReflectionCache.getProperties(clazz, "set").forEach(
+                (name, property) -> setters.put(name.toLowerCase(Locale.ROOT), property.method()));
+        getters = new HashMap<>();
+        ReflectionCache.getProperties(clazz, "get").forEach((name, property) -> getters.put(name, property.method()));
+    }
+
+    static ModelAccessor of(Class<?> clazz, ObjectMapper objectMapper) {
+        return CACHE.computeIfAbsent(
+                new Key(clazz, objectMapper), key -> new ModelAccessor(key.clazz(), key.objectMapper()));
+    }
+
+    /**
+     * Returns compiled accessor that copies property value from the source object (second argument) to the target
+     * object (first argument).
+     */
+    public static BiConsumer<Object, Object> copier(Class<?> clazz, String property) {
+        return COPIERS.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, key -> compileCopier(clazz, key));
+    }
+
+    Object newInstance() {
+        return constructor.get();
+    }
+
+    RowMapping mapping(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+        }
+        return mappings.computeIfAbsent(String.join(",", labels), key -> {
+            List<Integer> columns = new ArrayList<>();
+            List<ColumnReader> readers = new ArrayList<>();
+            int binaryColumn = 0;
+            for (int i = 0; i < count; i++) {
+                Method method = setters.get(labels[i]);
+                if (method != null) {
+                    columns.add(i + 1);
+                    readers.add(compileReader(method));
+                } else if (labels[i].equalsIgnoreCase(BINARY_ATTRIBUTES) && setters.containsKey("attributes")) {
+                    binaryColumn = i + 1;
+                }
+            }
+            if (binaryColumn > 0) {
+                columns.add(binaryColumn); // last, so it takes precedence over legacy JSON
+                readers.add(compileBinaryReader(setters.get("attributes")));
+            }
+            return new RowMapping(
+                    columns.stream().mapToInt(Integer::intValue).toArray(), readers.toArray(new ColumnReader[0]));
+        });
+    }
+
+    ValueWriter writer(String column) {
+        return writers.computeIfAbsent(column, key -> {
+            if (key.equals(BINARY_ATTRIBUTES)) {
+                return compileBinaryWriter(getters.get("attributes"));
+            }
+            return compileWriter(getters.get(key), key.endsWith("Id"));
+        });
+    }
+
+    private ColumnReader compileBinaryReader(Method method) {
+        BiConsumer<Object, Object> setter = compile(BiConsumer.class, "accept", method, true);
+        return (object, resultSet, column) -> {
+            byte[] value = resultSet.getBytes(column);
+            if (value != null && value.length > 0) {
+                setter.accept(object, AttributeCodec.decode(value, objectMapper));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueWriter compileBinaryWriter(Method method) {
+        Function<Object, Object> getter = compile(Function.class, "apply", method, false);
+        return (builder, index, object) -> builder.setBlob(
+                index, AttributeCodec.encode((Map<String, Object>) getter.apply(object), objectMapper));
+    }
+
+    private ColumnReader compileReader(Method method) {
+        Class<?> type = method.getParameterTypes()[0];
+        if (type.equals(boolean.class)) {
+            BooleanSetter setter = compile(BooleanSetter.class, "accept", method, true);
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getBoolean(column));
+        } else if (type.equals(int.class)) {
+            ObjIntConsumer<Object> setter = compile(ObjIntConsumer.class, "accept", method, true);
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getInt(column));
+        } else if (type.equals(long.class)) {
+            ObjLongConsumer<Object> setter = compile(ObjLongConsumer.class, "accept", method, true);
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getLong(column));
+        } else if (type.equals(double.class)) {
+            ObjDoubleConsumer<Object> setter = compile(ObjDoubleConsumer.class, "accept", method, true);
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getDouble(column));
+        }
+        BiConsumer<Object, Object> setter = compile(BiConsumer.class, "accept", method, true);
+        if (type.equals(String.class)) {
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getString(column));
+        } else if (type.equals(Date.class)) {
+            return (object, resultSet, column) -> {
+                Timestamp timestamp = resultSet.getTimestamp(column);
+                if (timestamp != null) {
+                    setter.accept(object, new Date(timestamp.getTime()));
+                }
+            };
+        } else if (type.equals(byte[].class)) {
+            return (object, resultSet, column) -> setter.accept(object, resultSet.getBytes(column));
+        } else {
+            ObjectReader reader = objectMapper.readerFor(type);
+            return (object, resultSet, column) -> {
+                String value = resultSet.getString(column);
+                if (value != null && !value.isEmpty()) {
+                    setter.accept(object, reader.readValue(value));
+                }
+            };
+        }
+    }
+
+    private ValueWriter compileWriter(Method method, boolean nullIfZero) {
+        Class<?> type = method.getReturnType();
+        if (type.equals(boolean.class)) {
+            Predicate<Object> getter = compile(Predicate.class, "test", method, false);
+            return (builder, index, object) -> builder.setBoolean(index, getter.test(object));
+        } else if (type.equals(int.class)) {
+            ToIntFunction<Object> getter = compile(ToIntFunction.class, "applyAsInt", method, false);
+            return (builder, index, object) -> builder.setInteger(index, getter.applyAsInt(object));
+        } else if (type.equals(long.class)) {
+            ToLongFunction<Object> getter = compile(ToLongFunction.class, "applyAsLong", method, false);
+            return (builder, index, object) -> builder.setLong(index, getter.applyAsLong(object), nullIfZero);
+        } else if (type.equals(double.class)) {
+            ToDoubleFunction<Object> getter = compile(ToDoubleFunction.class, "applyAsDouble", method, false);
+            return (builder, index, object) -> builder.setDouble(index, getter.applyAsDouble(object));
+        }
+        Function<Object, Object> getter = compile(Function.class, "apply", method, false);
+        if (type.equals(String.class)) {
+            return (builder, index, object) -> builder.setString(index, (String) getter.apply(object));
+        } else if (type.equals(Date.class)) {
+            return (builder, index, object) -> builder.setDate(index, (Date) getter.apply(object));
+        } else if (type.equals(byte[].class)) {
+            return (builder, index, object) -> builder.setBlob(index, (byte[]) getter.apply(object));
+        } else {
+            ObjectWriter writer = objectMapper.writer();
+            return (builder, index, object) -> builder.setString(
+                    index, writer.writeValueAsString(getter.apply(object)));
+        }
+    }
+
+    private static BiConsumer<Object, Object> compileCopier(Class<?> clazz, String property) {
+        var getterProperty = ReflectionCache.getProperties(clazz, "get").get(property);
+        var setterProperty = ReflectionCache.getProperties(clazz, "set").get(property);
+        if (getterProperty == null || setterProperty == null) {
+            throw new IllegalArgumentException("Unknown property " + property);
+        }
+        Method getterMethod = getterProperty.method();
+        Method setterMethod = setterProperty.method();
+        Class<?> type = getterMethod.getReturnType();
+        if (type.equals(boolean.class)) {
+            Predicate<Object> getter = compile(Predicate.class, "test", getterMethod, false);
+            BooleanSetter setter = compile(BooleanSetter.class, "accept", setterMethod, true);
+            return (target, source) -> setter.accept(target, getter.test(source));
+        } else if (type.equals(int.class)) {
+            ToIntFunction<Object> getter = compile(ToIntFunction.class, "applyAsInt", getterMethod, false);
+            ObjIntConsumer<Object> setter = compile(ObjIntConsumer.class, "accept", setterMethod, true);
+            return (target, source) -> setter.accept(target, getter.applyAsInt(source));
+        } else if (type.equals(long.class)) {
+            ToLongFunction<Object> getter = compile(ToLongFunction.class, "applyAsLong", getterMethod, false);
+            ObjLongConsumer<Object> setter = compile(ObjLongConsumer.class, "accept", setterMethod, true);
+            return (target, source) -> setter.accept(target, getter.applyAsLong(source));
+        } else if (type.equals(double.class)) {
+            ToDoubleFunction<Object> getter = compile(ToDoubleFunction.class, "applyAsDouble", getterMethod, false);
+            ObjDoubleConsumer<Object> setter = compile(ObjDoubleConsumer.class, "accept", setterMethod, true);
+            return (target, source) -> setter.accept(target, getter.applyAsDouble(source));
+        }
+        Function<Object, Object> getter = compile(Function.class, "apply", getterMethod, false);
+        BiConsumer<Object, Object> setter = compile(BiConsumer.class, "accept", setterMethod, true);
+        return (target, source) -> setter.accept(target, getter.apply(source));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> compileConstructor(Class<?> clazz) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(clazz, MethodType.methodType(void.class));
+            return (Supplier<Object>) LambdaMetafactory.metafactory(
+                    LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, handle.type())
+                    .getTarget().invoke();
+        } catch (Throwable e) {
+            return () -> {
+                try {
+                    return clazz.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException error) {
+                    throw new RuntimeException(error);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F> F compile(Class<? super F> type, String name, Method method, boolean setter) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            MethodType instantiatedType = setter ? handle.type().changeReturnType(void.class) : handle.type();
+            return (F) LambdaMetafactory.metafactory(
+                    LOOKUP, name, MethodType.methodType(type), instantiatedType.erase(), handle, instantiatedType)
+                    .getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to compile accessor " + method, e);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,18 +15,15 @@
  */
 package org.traccar.storage;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
-import org.traccar.helper.ReflectionCache;
 import org.traccar.model.Permission;
 
 import javax.sql.DataSource;
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -59,6 +56,9 @@ public final class QueryBuilder {
     private final String query;
     private final boolean returnGeneratedKeys;
 
+    private boolean cursorTransaction;
+    private String label;
+
     private QueryBuilder(
             Config config, DataSource dataSource, ObjectMapper objectMapper,
             String query, boolean returnGeneratedKeys) throws SQLException {
@@ -180,75 +180,44 @@ public final class QueryBuilder {
         return this;
     }
 
+    /**
+     * Label included in query logging, for example to identify the database the query was routed to.
+     */
+    public QueryBuilder setLabel(String label) {
+        this.label = label;
+        return this;
+    }
+
+    /**
+     * Requests a server-side cursor for the streamed result. Some drivers (e.g. PostgreSQL) only honour the fetch
+     * size inside a transaction, which is committed when the stream is closed.
+     */
+    public QueryBuilder setCursor(int fetchSize, boolean transaction) throws SQLException {
+        return setValue(() -> {
+            if (transaction && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                cursorTransaction = true;
+            }
+            statement.setFetchSize(fetchSize);
+        });
+    }
+
     public QueryBuilder setObject(Object object, List<String> columns) throws SQLException {
+        ModelAccessor accessor = ModelAccessor.of(object.getClass(), objectMapper);
         try {
             for (int index = 0; index < columns.size(); index++) {
-                String column = columns.get(index);
-                Method method = ReflectionCache.getProperties(object.getClass(), "get").get(column).method();
-                if (method.getReturnType().equals(boolean.class)) {
-                    setBoolean(index, (Boolean) method.invoke(object));
-                } else if (method.getReturnType().equals(int.class)) {
-                    setInteger(index, (Integer) method.invoke(object));
-                } else if (method.getReturnType().equals(long.class)) {
-                    setLong(index, (Long) method.invoke(object), column.endsWith("Id"));
-                } else if (method.getReturnType().equals(double.class)) {
-                    setDouble(index, (Double) method.invoke(object));
-                } else if (method.getReturnType().equals(String.class)) {
-                    setString(index, (String) method.invoke(object));
-                } else if (method.getReturnType().equals(Date.class)) {
-                    setDate(index, (Date) method.invoke(object));
-                } else if (method.getReturnType().equals(byte[].class)) {
-                    setBlob(index, (byte[]) method.invoke(object));
-                } else {
-                    setString(index, objectMapper.writeValueAsString(method.invoke(object)));
-                }
+                accessor.writer(columns.get(index)).write(this, index, object);
             }
-        } catch (ReflectiveOperationException | JsonProcessingException e) {
+        } catch (IOException e) {
             LOGGER.warn("Set object error", e);
         }
 
         return this;
     }
 
-    private interface ResultSetProcessor<T> {
-        void process(T object, ResultSet resultSet) throws ReflectiveOperationException, IOException, SQLException;
-    }
-
-    private <T> void addProcessors(
-            List<ResultSetProcessor<T>> processors,
-            final Class<?> parameterType, final Method method, final String name) {
-        if (parameterType.equals(boolean.class)) {
-            processors.add((object, resultSet) -> method.invoke(object, resultSet.getBoolean(name)));
-        } else if (parameterType.equals(int.class)) {
-            processors.add((object, resultSet) -> method.invoke(object, resultSet.getInt(name)));
-        } else if (parameterType.equals(long.class)) {
-            processors.add((object, resultSet) -> method.invoke(object, resultSet.getLong(name)));
-        } else if (parameterType.equals(double.class)) {
-            processors.add((object, resultSet) -> method.invoke(object, resultSet.getDouble(name)));
-        } else if (parameterType.equals(String.class)) {
-            processors.add((object, resultSet) -> method.invoke(object, resultSet.getString(name)));
-        } else if (parameterType.equals(Date.class)) {
-            processors.add((object, resultSet) -> {
-                Timestamp timestamp = resultSet.getTimestamp(name);
-                if (timestamp != null) {
-                    method.invoke(object, new Date(timestamp.getTime()));
-                }
-            });
-        } else if (parameterType.equals(byte[].class)) {
-            processors.add((object, resultSet) -> method.invoke(object, (Object) resultSet.getBytes(name)));
-        } else {
-            processors.add((object, resultSet) -> {
-                String value = resultSet.getString(name);
-                if (value != null && !value.isEmpty()) {
-                    method.invoke(object, objectMapper.readValue(value, parameterType));
-                }
-            });
-        }
-    }
-
     private void logQuery() {
         if (config.getBoolean(Keys.LOGGER_QUERIES)) {
-            LOGGER.info(query);
+            LOGGER.info(label != null ? "[" + label + "] " + query : query);
         }
     }
 
@@ -267,23 +236,10 @@ public final class QueryBuilder {
             logQuery();
 
             resultSet = statement.executeQuery();
-            ResultSetMetaData resultMetaData = resultSet.getMetaData();
-
-            List<ResultSetProcessor<T>> processors = new ArrayList<>();
-            for (var entry : ReflectionCache.getProperties(clazz, "set").entrySet()) {
-                final String name = entry.getKey();
-                boolean column = false;
-                for (int i = 1; i <= resultMetaData.getColumnCount(); i++) {
-                    if (name.equalsIgnoreCase(resultMetaData.getColumnLabel(i))) {
-                        column = true;
-                        break;
-                    }
-                }
-                if (column) {
-                    Method method = entry.getValue().method();
-                    addProcessors(processors, method.getParameterTypes()[0], method, name);
-                }
-            }
+            ModelAccessor accessor = ModelAccessor.of(clazz, objectMapper);
+            ModelAccessor.RowMapping mapping = accessor.mapping(resultSet.getMetaData());
+            int[] columns = mapping.columns();
+            ModelAccessor.ColumnReader[] readers = mapping.readers();
 
             final ResultSet retainedResultSet = resultSet;
             return StreamSupport.stream(
@@ -292,11 +248,11 @@ public final class QueryBuilder {
                         public boolean tryAdvance(Consumer<? super T> action) {
                             try {
                                 if (retainedResultSet.next()) {
-                                    T object = clazz.getDeclaredConstructor().newInstance();
-                                    for (ResultSetProcessor<T> processor : processors) {
+                                    T object = clazz.cast(accessor.newInstance());
+                                    for (int i = 0; i < readers.length; i++) {
                                         try {
-                                            processor.process(object, retainedResultSet);
-                                        } catch (ReflectiveOperationException | IOException error) {
+                                            readers[i].read(object, retainedResultSet, columns[i]);
+                                        } catch (IOException error) {
                                             LOGGER.warn("Set property error", error);
                                         }
                                     }
@@ -305,7 +261,7 @@ public final class QueryBuilder {
                                 } else {
                                     return false;
                                 }
-                            } catch (SQLException | ReflectiveOperationException e) {
+                            } catch (SQLException e) {
                                 throw new RuntimeException(e);
                             }
                         }
@@ -323,6 +279,10 @@ public final class QueryBuilder {
                 resultSet.close();
             }
             statement.close();
+            if (cursorTransaction) {
+                connection.commit();
+                connection.setAutoCommit(true);
+            }
             connection.close();
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -349,6 +309,41 @@ public final class QueryBuilder {
         return 0;
     }
 
+    public QueryBuilder addBatch() throws SQLException {
+        return setValue(() -> statement.addBatch());
+    }
+
+    public List<Long> executeBatch() throws SQLException {
+        List<Long> result = new ArrayList<>();
+        if (query != null) {
+            try {
+                logQuery();
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    statement.executeBatch();
+                    if (returnGeneratedKeys) {
+                        try (ResultSet resultSet = statement.getGeneratedKeys()) {
+                            while (resultSet.next()) {
+                                result.add(resultSet.getLong(1));
+                            }
+                        }
+                    }
+                    connection.commit();
+                } catch (SQLException error) {
+                    connection.rollback();
+                    throw error;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                statement.close();
+                connection.close();
+            }
+        }
+        return result;
+    }
+
     public List<Permission> executePermissionsQuery() throws SQLException {
         List<Permission> result = new LinkedList<>();
         if (query != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,12 @@ package org.traccar.storage;
 
 import org.traccar.model.BaseModel;
 import org.traccar.model.Permission;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -30,6 +34,14 @@ public abstract class Storage {
 
     public abstract <T> long addObject(T entity, Request request) throws StorageException;
 
+    public <T> List<Long> addObjects(List<T> entities, Request request) throws StorageException {
+        List<Long> result = new ArrayList<>();
+        for (T entity : entities) {
+            result.add(addObject(entity, request));
+        }
+        return result;
+    }
+
     public abstract <T> void updateObject(T entity, Request request) throws StorageException;
 
     public abstract void removeObject(Class<?> clazz, Request request) throws StorageException;
@@ -54,4 +66,34 @@ public abstract class Storage {
         }
     }
 
+    /**
+     * Storage for history and report reads that tolerate replication lag. Writes and reads that must see recent
+     * changes, such as latest positions and permissions, should use the primary storage.
+     */
+    public Storage replica() {
+        return this;
+    }
+
+    /**
+     * Maximum number of bound parameters in a single statement.
+     */
+    protected int getParameterLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Fetches objects with the given ids, split into as few queries as the parameter limit allows. Result order is
+     * not defined and missing ids are skipped.
+     */
+    public <T> List<T> getObjectsByIds(Class<T> clazz, Collection<Long> ids) throws StorageException {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        List<T> result = new ArrayList<>(distinctIds.size());
+        int limit = getParameterLimit();
+        for (int start = 0; start < distinctIds.size(); start += limit) {
+            var chunk = distinctIds.subList(start, Math.min(start + limit, distinctIds.size()));
+            result.addAll(getObjects(clazz, new Request(new Columns.All(), new Condition.In("id", chunk))));
+        }
+        return result;
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,13 @@ public abstract class Columns {
 
     public abstract List<String> getColumns(Class<?> clazz, String type);
 
+    /**
+     * Identifies the column selection for statement caching. Null if the selection can't be cached.
+     */
+    public String getKey() {
+        return null;
+    }
+
     protected List<String> getAllColumns(Class<?> clazz, String type) {
         return ReflectionCache.getProperties(clazz, type).entrySet().stream()
                 .filter(entry -> !entry.getValue().queryIgnore())
@@ -39,6 +46,11 @@ public abstract class Columns {
         public List<String> getColumns(Class<?> clazz, String type) {
             return getAllColumns(clazz, type);
         }
+
+        @Override
+        public String getKey() {
+            return "*";
+        }
     }
 
     public static class Include extends Columns {
@@ -52,6 +64,11 @@ public abstract class Columns {
         public List<String> getColumns(Class<?> clazz, String type) {
             return columns;
         }
+
+        @Override
+        public String getKey() {
+            return "+" + String.join(",", columns);
+        }
     }
 
     public static class Exclude extends Columns {
@@ -67,6 +84,11 @@ public abstract class Columns {
                     .filter(column -> !columns.contains(column))
                     .collect(Collectors.toList());
         }
+
+        @Override
+        public String getKey() {
+            return "-" + columns.stream().sorted().collect(Collectors.joining(","));
+        }
     }
 
 }
@@ -0,0 +1,91 @@
+package org.traccar;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EventLoopGroupFactoryTest {
+
+    @ChannelHandler.Sharable
+    private static final class CountingHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+
+        private final CountDownLatch latch;
+
+        private CountingHandler(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testSelectTransport() {
+        assertEquals(EventLoopGroupFactory.Transport.NIO, EventLoopGroupFactory.selectTransport(null));
+        assertEquals(EventLoopGroupFactory.Transport.NIO, EventLoopGroupFactory.selectTransport("nio"));
+        assertEquals(
+                Epoll.isAvailable() ? EventLoopGroupFactory.Transport.EPOLL : EventLoopGroupFactory.Transport.NIO,
+                EventLoopGroupFactory.selectTransport("epoll"));
+    }
+
+    @Test
+    public void testDatagramReusePort() throws Exception {
+        assumeTrue(Epoll.isAvailable());
+
+        var config = mock(Config.class);
+        when(config.getString(Keys.SERVER_NETTY_TRANSPORT)).thenReturn("epoll");
+        var factory = new EventLoopGroupFactory(config);
+        assertTrue(factory.isReusePortSupported());
+
+        int count = 100;
+        CountDownLatch latch = new CountDownLatch(count);
+        var bootstrap = new Bootstrap()
+                .group(factory.getWorkerGroup())
+                .channel(factory.getDatagramChannelClass())
+                .option(EpollChannelOption.SO_REUSEPORT, true)
+                .handler(new CountingHandler(latch));
+
+        List<Channel> channels = new ArrayList<>();
+        try {
+            Channel first = bootstrap.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            channels.add(first);
+            InetSocketAddress endpoint = (InetSocketAddress) first.localAddress();
+            channels.add(bootstrap.bind(endpoint).sync().channel());
+
+            Channel sender = bootstrap.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            channels.add(sender);
+            for (int i = 0; i < count; i++) {
+                sender.writeAndFlush(new DatagramPacket(Unpooled.wrappedBuffer(new byte[] {1}), endpoint));
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            channels.forEach(Channel::close);
+            factory.getBossGroup().shutdownGracefully();
+            factory.getWorkerGroup().shutdownGracefully();
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.traccar.database;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.Test;
+import org.traccar.BlockingExecutor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BackpressureManagerTest {
+
+    @Test
+    public void testWatermarks() {
+        var config = mock(Config.class);
+        when(config.getInteger(Keys.SERVER_BACKPRESSURE_HIGH)).thenReturn(4);
+        var manager = new BackpressureManager(config, mock(Timer.class), new MetricsManager(), null, null, null);
+
+        var channel = mock(Channel.class);
+        var channelConfig = mock(ChannelConfig.class);
+        when(channel.config()).thenReturn(channelConfig);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(manager.admit(channel, false));
+            manager.acquire("test");
+        }
+        assertTrue(manager.isActive());
+        assertFalse(manager.admit(mock(Channel.class), true));
+        assertTrue(manager.admit(channel, false));
+        verify(channelConfig).setAutoRead(false);
+
+        manager.release("test");
+        assertTrue(manager.isActive());
+        manager.release("test");
+        assertFalse(manager.isActive());
+        verify(channelConfig).setAutoRead(true);
+    }
+
+    @Test
+    public void testBlockingBacklog() throws Exception {
+        var config = mock(Config.class);
+        when(config.getInteger(Keys.SERVER_BACKPRESSURE_HIGH)).thenReturn(4);
+        when(config.getInteger(Keys.SERVER_BLOCKING_THREADS)).thenReturn(1);
+        when(config.getInteger(Keys.SERVER_BLOCKING_QUEUE)).thenReturn(10);
+        var blockingExecutor = new BlockingExecutor(config, new MetricsManager());
+        var manager = new BackpressureManager(
+                config, mock(Timer.class), new MetricsManager(), null, blockingExecutor, null);
+
+        var release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            blockingExecutor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertEquals(3, manager.getLoad());
+        release.countDown();
+        blockingExecutor.stop();
+        assertEquals(0, manager.getLoad());
+    }
+
+}
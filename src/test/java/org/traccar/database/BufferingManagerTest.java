@@ -0,0 +1,54 @@
+package org.traccar.database;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BufferingManagerTest {
+
+    private Position createPosition(long time) {
+        Position position = new Position();
+        position.setDeviceId(1);
+        position.setTime(new Date(time));
+        return position;
+    }
+
+    @Test
+    public void testReorder() throws Exception {
+        var config = mock(Config.class);
+        when(config.getLong(Keys.SERVER_BUFFERING_THRESHOLD)).thenReturn(100L);
+        var context = mock(ChannelHandlerContext.class);
+        when(context.executor()).thenReturn(ImmediateEventExecutor.INSTANCE);
+
+        List<Long> released = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        var bufferingManager = new BufferingManager(config, (ctx, position) -> {
+            released.add(position.getFixTime().getTime());
+            latch.countDown();
+        });
+
+        bufferingManager.accept(context, createPosition(2000));
+        bufferingManager.accept(context, createPosition(3000));
+        bufferingManager.accept(context, createPosition(1000));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1000L, 2000L, 3000L), released);
+        assertEquals(1, bufferingManager.getOutOfOrder());
+        assertEquals(0, bufferingManager.getLateArrivals());
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceUpdateManagerTest {
+
+    @Test
+    public void testMergeUpdates() throws Exception {
+        var config = mock(Config.class);
+        when(config.getLong(Keys.DATABASE_DEVICE_UPDATE_INTERVAL)).thenReturn(60000L);
+        var storage = mock(Storage.class);
+        var manager = new DeviceUpdateManager(config, storage);
+
+        Device device = new Device();
+        device.setId(1);
+        device.setStatus(Device.STATUS_ONLINE);
+        device.setLastUpdate(new Date());
+        manager.update(device, false, "status", "lastUpdate");
+
+        Device positionDevice = new Device();
+        positionDevice.setId(1);
+        positionDevice.setPositionId(10);
+        manager.update(positionDevice, false, "positionId");
+
+        verify(storage, never()).updateObject(any(), any());
+
+        manager.flush();
+
+        var deviceCaptor = ArgumentCaptor.forClass(Device.class);
+        var requestCaptor = ArgumentCaptor.forClass(Request.class);
+        verify(storage, times(1)).updateObject(deviceCaptor.capture(), requestCaptor.capture());
+        assertEquals(Device.STATUS_ONLINE, deviceCaptor.getValue().getStatus());
+        assertEquals(10, deviceCaptor.getValue().getPositionId());
+        assertEquals(
+                List.of("status", "lastUpdate", "positionId"),
+                requestCaptor.getValue().getColumns().getColumns(Device.class, "get"));
+    }
+
+    @Test
+    public void testUpdateAfterStop() throws Exception {
+        var config = mock(Config.class);
+        when(config.getLong(Keys.DATABASE_DEVICE_UPDATE_INTERVAL)).thenReturn(60000L);
+        var storage = mock(Storage.class);
+        var manager = new DeviceUpdateManager(config, storage);
+        manager.start();
+        manager.stop();
+
+        Device device = new Device();
+        device.setId(1);
+        device.setPositionId(10);
+        manager.update(device, false, "positionId");
+        verify(storage, times(1)).updateObject(any(), any());
+    }
+
+    @Test
+    public void testWriteOrder() throws Exception {
+        var config = mock(Config.class);
+        when(config.getLong(Keys.DATABASE_DEVICE_UPDATE_INTERVAL)).thenReturn(60000L);
+        var storage = mock(Storage.class);
+        var manager = new DeviceUpdateManager(config, storage);
+
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Device device = invocation.getArgument(0);
+            if (device.getStatus().equals(Device.STATUS_OFFLINE)) {
+                started.countDown();
+                release.await();
+            }
+            written.add(device.getStatus());
+            return null;
+        }).when(storage).updateObject(any(), any());
+
+        Device device = new Device();
+        device.setId(1);
+        device.setStatus(Device.STATUS_OFFLINE);
+        manager.update(device, false, "status");
+        Thread flushThread = new Thread(() -> manager.flush());
+        flushThread.start();
+        started.await();
+
+        Device updated = new Device();
+        updated.setId(1);
+        updated.setStatus(Device.STATUS_ONLINE);
+        Thread updateThread = new Thread(() -> manager.update(updated, true, "status"));
+        updateThread.start();
+        // immediate update has to park on the stripe lock held by the flush instead of writing
+        while (updateThread.getState() != Thread.State.WAITING
+                && updateThread.getState() != Thread.State.TERMINATED) {
+            Thread.yield();
+        }
+        assertEquals(Thread.State.WAITING, updateThread.getState());
+        assertEquals(List.of(), written);
+        release.countDown();
+        flushThread.join();
+        updateThread.join();
+
+        assertEquals(List.of(Device.STATUS_OFFLINE, Device.STATUS_ONLINE), written);
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.MainModule;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IngestJournalTest {
+
+    private Position createPosition(long deviceId) {
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        position.setTime(new Date());
+        position.set(Position.KEY_BATTERY, 12.5);
+        return position;
+    }
+
+    private Config createConfig(Path directory, int size) {
+        var config = mock(Config.class);
+        when(config.getString(Keys.SERVER_JOURNAL_PATH)).thenReturn(directory.resolve("journal").toString());
+        when(config.getInteger(Keys.SERVER_JOURNAL_SIZE)).thenReturn(size);
+        when(config.getLong(Keys.SERVER_JOURNAL_SYNC_INTERVAL)).thenReturn(0L);
+        return config;
+    }
+
+    @Test
+    public void testReplay(@TempDir Path directory) throws Exception {
+        var config = createConfig(directory, 64 * 1024);
+        var objectMapper = MainModule.provideObjectMapper();
+
+        List<Position> replayed = new ArrayList<>();
+        var journal = new IngestJournal(config, new MetricsManager(), objectMapper, replayed::addAll);
+        journal.start();
+        assertTrue(replayed.isEmpty());
+
+        AtomicInteger acknowledged = new AtomicInteger();
+        Position first = createPosition(1);
+        Position second = createPosition(2);
+        assertTrue(journal.append(first, acknowledged::incrementAndGet));
+        assertTrue(journal.append(second, acknowledged::incrementAndGet));
+        assertEquals(2, acknowledged.get());
+        assertFalse(journal.commit(first));
+        journal.stop();
+
+        journal = new IngestJournal(config, new MetricsManager(), objectMapper, replayed::addAll);
+        journal.start();
+        assertEquals(1, replayed.size());
+        assertEquals(2, replayed.get(0).getDeviceId());
+        assertEquals(12.5, replayed.get(0).getDouble(Position.KEY_BATTERY));
+        assertFalse(journal.commit(replayed.get(0)));
+        journal.stop();
+
+        replayed.clear();
+        journal = new IngestJournal(config, new MetricsManager(), objectMapper, replayed::addAll);
+        journal.start();
+        assertTrue(replayed.isEmpty());
+        journal.stop();
+    }
+
+    @Test
+    public void testReuseSpace(@TempDir Path directory) throws Exception {
+        var config = createConfig(directory, 4 * 1024);
+        var objectMapper = MainModule.provideObjectMapper();
+
+        List<Position> replayed = new ArrayList<>();
+        var journal = new IngestJournal(config, new MetricsManager(), objectMapper, replayed::addAll);
+        journal.start();
+
+        Deque<Position> pending = new ArrayDeque<>();
+        for (int i = 0; i < 1000; i++) {
+            Position position = createPosition(i);
+            assertTrue(journal.append(position, () -> { }));
+            pending.addLast(position);
+            if (pending.size() > 3) {
+                assertFalse(journal.commit(pending.removeFirst()));
+            }
+        }
+        assertEquals(0, journal.getRefused());
+        journal.stop();
+
+        journal = new IngestJournal(config, new MetricsManager(), objectMapper, replayed::addAll);
+        journal.start();
+        assertEquals(pending.stream().map(Position::getDeviceId).toList(),
+                replayed.stream().map(Position::getDeviceId).toList());
+        replayed.forEach(journal::commit);
+        journal.stop();
+    }
+
+    @Test
+    public void testRefused(@TempDir Path directory) throws Exception {
+        var config = createConfig(directory, 4 * 1024);
+        var journal = new IngestJournal(config, new MetricsManager(), MainModule.provideObjectMapper(), positions -> { });
+        journal.start();
+
+        List<Position> appended = new ArrayList<>();
+        Position position = createPosition(0);
+        while (journal.append(position, () -> { })) {
+            appended.add(position);
+            position = createPosition(appended.size());
+        }
+        assertEquals(1, journal.getRefused());
+        assertTrue(journal.commit(position));
+
+        assertFalse(journal.commit(appended.get(0)));
+        assertFalse(journal.commit(appended.get(1)));
+        assertTrue(journal.append(position, () -> { }));
+        journal.stop();
+    }
+
+}
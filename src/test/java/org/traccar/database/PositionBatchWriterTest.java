@@ -0,0 +1,58 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+import org.traccar.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PositionBatchWriterTest {
+
+    @Test
+    public void testBatchWrite() throws Exception {
+        var config = mock(Config.class);
+        when(config.getInteger(Keys.DATABASE_BATCH_SIZE)).thenReturn(10);
+        when(config.getLong(Keys.DATABASE_BATCH_DELAY)).thenReturn(20L);
+        when(config.getInteger(Keys.DATABASE_BATCH_QUEUE)).thenReturn(100);
+
+        List<Integer> batchSizes = new ArrayList<>();
+        var storage = mock(Storage.class);
+        when(storage.addObjects(anyList(), any())).thenAnswer(invocation -> {
+            List<?> entities = invocation.getArgument(0);
+            batchSizes.add(entities.size());
+            return LongStream.rangeClosed(1, entities.size()).boxed().toList();
+        });
+
+        var writer = new PositionBatchWriter(config, storage, mock(StatisticsManager.class));
+        writer.start();
+
+        List<Position> positions = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(25);
+        for (int i = 0; i < 25; i++) {
+            Position position = new Position();
+            positions.add(position);
+            writer.write(position, filtered -> latch.countDown());
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        writer.stop();
+
+        assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertTrue(positions.stream().allMatch(position -> position.getId() > 0));
+    }
+
+}
@@ -24,4 +24,15 @@ public class GeofenceCircleTest {
         assertFalse(geofenceGeometry.containsPoint(55.75545, 37.61921));
     }
 
+    @Test
+    public void testContainsCircleBoundary() throws ParseException {
+        GeofenceGeometry geofenceGeometry = new GeofenceCircle("CIRCLE (55.75414 37.6204, 1000)");
+        assertTrue(geofenceGeometry.getMax().lat() - geofenceGeometry.getMin().lat() < 0.02);
+        assertTrue(geofenceGeometry.containsPoint(55.75414, 37.6204 + 0.0159));
+        assertFalse(geofenceGeometry.containsPoint(55.75414, 37.6204 + 0.0161));
+
+        geofenceGeometry = new GeofenceCircle("CIRCLE (10 179.999, 1000)");
+        assertTrue(geofenceGeometry.containsPoint(10, -179.999));
+    }
+
 }
@@ -0,0 +1,83 @@
+package org.traccar.geofence;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Geofence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeofenceIndexTest {
+
+    private static final int GEOFENCES = 2000;
+    private static final int QUERIES = 500;
+
+    private List<Geofence> createGeofences(Random random) {
+        List<Geofence> geofences = new ArrayList<>();
+        for (int i = 0; i < GEOFENCES; i++) {
+            double latitude = 50 + random.nextDouble() * 5;
+            double longitude = 10 + random.nextDouble() * 5;
+            Geofence geofence = new Geofence();
+            geofence.setId(i + 1);
+            if (i % 2 == 0) {
+                geofence.setArea(String.format(Locale.US, "CIRCLE (%f %f, %d)",
+                        latitude, longitude, 100 + random.nextInt(5000)));
+            } else {
+                double size = 0.01 + random.nextDouble() * 0.05;
+                geofence.setArea(String.format(Locale.US, "POLYGON ((%f %f, %f %f, %f %f, %f %f))",
+                        latitude, longitude, latitude + size, longitude,
+                        latitude + size, longitude + size, latitude, longitude + size / 2));
+            }
+            geofences.add(geofence);
+        }
+        Geofence antimeridian = new Geofence();
+        antimeridian.setId(GEOFENCES + 1);
+        antimeridian.setArea("POLYGON ((50 179, 56 179, 56 -179, 50 -179))");
+        geofences.add(antimeridian);
+        return geofences;
+    }
+
+    private Set<Long> scan(List<Geofence> geofences, double latitude, double longitude) {
+        Set<Long> result = new HashSet<>();
+        for (Geofence geofence : geofences) {
+            if (geofence.getGeometry().containsPoint(latitude, longitude)) {
+                result.add(geofence.getId());
+            }
+        }
+        return result;
+    }
+
+    private Set<Long> query(GeofenceIndex index, double latitude, double longitude) {
+        Set<Long> result = new HashSet<>();
+        index.getGeofences(latitude, longitude).forEach(geofence -> result.add(geofence.getId()));
+        return result;
+    }
+
+    @Test
+    public void testIndex() {
+        var random = new Random(1);
+        var geofences = createGeofences(random);
+        var index = new GeofenceIndex(geofences);
+
+        double[][] points = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = new double[] {49.5 + random.nextDouble() * 6, 9.5 + random.nextDouble() * 6};
+        }
+
+        int matches = 0;
+        for (double[] point : points) {
+            Set<Long> expected = scan(geofences, point[0], point[1]);
+            assertEquals(expected, query(index, point[0], point[1]));
+            matches += expected.size();
+        }
+        assertTrue(matches > 0);
+        assertEquals(Set.of((long) GEOFENCES + 1), query(index, 53, -179.5));
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testQuantiles() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(0.0199, histogram.getSum(), 0.0001);
+        assertEquals(128e-6, histogram.getQuantile(0.5), 1e-9);
+        assertEquals(128e-6, histogram.getQuantile(0.99), 1e-9);
+        assertEquals(16384e-6, histogram.getQuantile(1.0), 1e-9);
+    }
+
+}
@@ -43,6 +43,7 @@ public class ReportUtilsTest extends BaseTest {
     @BeforeEach
     public void init() throws StorageException {
         storage = mock(Storage.class);
+        when(storage.replica()).thenReturn(storage);
         when(storage.getObject(eq(Device.class), any())).thenReturn(mock(Device.class));
     }
 
@@ -0,0 +1,59 @@
+package org.traccar.schedule;
+
+import com.google.inject.Injector;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class TaskPositionRetentionTest {
+
+    @Test
+    public void testKeepsLatestPosition() throws Exception {
+        var storage = new MemoryStorage();
+        Device device = new Device();
+        device.setUniqueId("123");
+        long deviceId = storage.addObject(device, new Request(new Columns.Exclude("id")));
+
+        long now = System.currentTimeMillis();
+        List<Long> positionIds = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Position position = new Position();
+            position.setDeviceId(deviceId);
+            position.setFixTime(new Date(now - TimeUnit.DAYS.toMillis(100) + i));
+            positionIds.add(storage.addObject(position, new Request(new Columns.Exclude("id"))));
+        }
+        Position recent = new Position();
+        recent.setDeviceId(deviceId);
+        recent.setFixTime(new Date(now));
+        storage.addObject(recent, new Request(new Columns.Exclude("id")));
+
+        device.setPositionId(positionIds.get(1200));
+        storage.updateObject(device, new Request(
+                new Columns.Include("positionId"), new Condition.Equals("id", deviceId)));
+
+        var config = new Config();
+        config.setString(Keys.DATABASE_MEMORY, "true");
+        config.setString(Keys.POSITIONS_RETENTION_DAYS, "30");
+        new TaskPositionRetention(config, storage, mock(Injector.class)).run();
+
+        var remaining = storage.getObjects(Position.class, new Request(
+                new Columns.All(), new Condition.Equals("deviceId", deviceId)));
+        assertEquals(2, remaining.size());
+        assertEquals(positionIds.get(1200), remaining.stream().mapToLong(Position::getId).min().orElse(0));
+    }
+
+}
@@ -0,0 +1,221 @@
+package org.traccar.session.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.model.AttributeUtil;
+import org.traccar.helper.model.GeofenceUtil;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Geofence;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CacheManagerTest {
+
+    private static final int DEVICES = 16;
+    private static final int THREADS = 4;
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger fullScans = new AtomicInteger();
+    private MemoryStorage storage;
+    private CacheManager cacheManager;
+    private final List<Long> deviceIds = new ArrayList<>();
+    private long groupId;
+    private long geofenceId;
+
+    @BeforeEach
+    public void init() throws StorageException {
+        storage = new MemoryStorage() {
+            @Override
+            public <T> List<T> getObjects(Class<T> clazz, Request request) {
+                queries.incrementAndGet();
+                return super.getObjects(clazz, request);
+            }
+
+            @Override
+            public List<Permission> getPermissions(
+                    Class<? extends BaseModel> ownerClass, long ownerId,
+                    Class<? extends BaseModel> propertyClass, long propertyId) {
+                queries.incrementAndGet();
+                if (ownerId == 0 && propertyId == 0) {
+                    fullScans.incrementAndGet();
+                }
+                return super.getPermissions(ownerClass, ownerId, propertyClass, propertyId);
+            }
+        };
+        Group group = new Group();
+        groupId = storage.addObject(group, new Request(new Columns.Exclude("id")));
+        Geofence geofence = new Geofence();
+        geofence.setName("test");
+        geofence.setArea("CIRCLE (0 0, 100)");
+        geofenceId = storage.addObject(geofence, new Request(new Columns.Exclude("id")));
+        storage.addPermission(new Permission(Group.class, groupId, Geofence.class, geofenceId));
+        for (int i = 0; i < DEVICES; i++) {
+            Device device = new Device();
+            device.setUniqueId(String.valueOf(i));
+            device.setGroupId(groupId);
+            deviceIds.add(storage.addObject(device, new Request(new Columns.Exclude("id"))));
+        }
+        cacheManager = new CacheManager(
+                new Config(), storage, mock(BroadcastService.class), new PermissionIndex(storage));
+    }
+
+    @Test
+    public void testReferences() throws Exception {
+        long deviceId = deviceIds.get(0);
+        fullScans.set(0);
+        cacheManager.addDevice(deviceId, "first");
+        cacheManager.addDevice(deviceId, "second");
+        assertEquals(1, cacheManager.getDeviceObjects(deviceId, Geofence.class).size());
+
+        cacheManager.removeDevice(deviceId, "first");
+        assertNotNull(cacheManager.getObject(Device.class, deviceId));
+
+        cacheManager.removeDevice(deviceId, "second");
+        assertNull(cacheManager.getObject(Device.class, deviceId));
+        assertEquals(0, fullScans.get());
+    }
+
+    @Test
+    public void testDeviceObjectsView() throws Exception {
+        long deviceId = deviceIds.get(0);
+        cacheManager.addDevice(deviceId, "key");
+        var geofences = cacheManager.getDeviceObjects(deviceId, Geofence.class);
+        assertSame(geofences, cacheManager.getDeviceObjects(deviceId, Geofence.class));
+
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        assertEquals(List.of(geofenceId), GeofenceUtil.getCurrentGeofences(cacheManager, position));
+        position.setLatitude(1);
+        assertTrue(GeofenceUtil.getCurrentGeofences(cacheManager, position).isEmpty());
+        assertEquals(1, cacheManager.getDeviceObjects(deviceId, Geofence.class, Integer.class, Set::size));
+
+        Geofence geofence = new Geofence();
+        geofence.setName("updated");
+        storage.updateObject(geofence, new Request(
+                new Columns.Include("name"), new Condition.Equals("id", geofenceId)));
+        cacheManager.invalidateObject(false, Geofence.class, geofenceId, ObjectOperation.UPDATE);
+        assertEquals("updated", cacheManager.getDeviceObjects(deviceId, Geofence.class).iterator().next().getName());
+
+        Geofence other = new Geofence();
+        other.setArea("CIRCLE (0 0, 100)");
+        long otherId = storage.addObject(other, new Request(new Columns.Exclude("id")));
+        storage.addPermission(new Permission(Group.class, groupId, Geofence.class, otherId));
+        cacheManager.invalidatePermission(false, Group.class, groupId, Geofence.class, otherId, true);
+        assertEquals(2, cacheManager.getDeviceObjects(deviceId, Geofence.class).size());
+
+        cacheManager.invalidatePermission(false, Group.class, groupId, Geofence.class, geofenceId, false);
+        assertEquals(Set.of(otherId), cacheManager.getDeviceObjects(deviceId, Geofence.class).stream()
+                .map(Geofence::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testAttributeTable() throws Exception {
+        long deviceId = deviceIds.get(0);
+        cacheManager.addDevice(deviceId, "key");
+        assertEquals(0.01, AttributeUtil.lookup(cacheManager, Keys.EVENT_MOTION_SPEED_THRESHOLD, deviceId));
+
+        Group group = new Group();
+        group.set(Keys.EVENT_MOTION_SPEED_THRESHOLD.getKey(), "5");
+        storage.updateObject(group, new Request(new Columns.Include("attributes"), new Condition.Equals("id", groupId)));
+        assertEquals(0.01, AttributeUtil.lookup(cacheManager, Keys.EVENT_MOTION_SPEED_THRESHOLD, deviceId));
+        cacheManager.invalidateObject(false, Group.class, groupId, ObjectOperation.UPDATE);
+        assertEquals(5.0, AttributeUtil.lookup(cacheManager, Keys.EVENT_MOTION_SPEED_THRESHOLD, deviceId));
+        assertNotNull(cacheManager.getAttributeTable(deviceId)[Keys.EVENT_MOTION_SPEED_THRESHOLD.getIndex()]);
+
+        Device device = new Device();
+        device.set(Keys.EVENT_MOTION_SPEED_THRESHOLD.getKey(), 7);
+        storage.updateObject(device, new Request(
+                new Columns.Include("attributes"), new Condition.Equals("id", deviceId)));
+        cacheManager.invalidateObject(false, Device.class, deviceId, ObjectOperation.UPDATE);
+        assertEquals(7.0, AttributeUtil.lookup(cacheManager, Keys.EVENT_MOTION_SPEED_THRESHOLD, deviceId));
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        var config = new Config();
+        config.setString(Keys.DATABASE_CACHE_WARMUP, "true");
+        var permissionIndex = new PermissionIndex(storage);
+        queries.set(0);
+        var warmCacheManager = new CacheManager(config, storage, mock(BroadcastService.class), permissionIndex);
+        assertTrue(queries.get() < 20);
+
+        queries.set(0);
+        long deviceId = deviceIds.get(1);
+        warmCacheManager.addDevice(deviceId, "key");
+        warmCacheManager.removeDevice(deviceId, "key");
+        assertEquals(0, queries.get());
+        assertNotNull(warmCacheManager.getObject(Device.class, deviceId));
+        assertEquals(1, warmCacheManager.getDeviceObjects(deviceId, Geofence.class).size());
+
+        warmCacheManager.invalidateObject(false, Device.class, deviceId, ObjectOperation.DELETE);
+        assertNull(warmCacheManager.getObject(Device.class, deviceId));
+    }
+
+    private void runConcurrently(int iterations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t * DEVICES / THREADS;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        long deviceId = deviceIds.get((offset + i) % DEVICES);
+                        Object key = new Object();
+                        cacheManager.addDevice(deviceId, key);
+                        assertNotNull(cacheManager.getObject(Device.class, deviceId));
+                        cacheManager.removeDevice(deviceId, key);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentReferences() throws Exception {
+        long heldId = deviceIds.get(0);
+        cacheManager.addDevice(heldId, "session");
+        runConcurrently(1000);
+        assertNotNull(cacheManager.getObject(Device.class, heldId));
+        cacheManager.removeDevice(heldId, "session");
+
+        for (long deviceId : deviceIds) {
+            assertNull(cacheManager.getObject(Device.class, deviceId));
+        }
+        cacheManager.addDevice(heldId, "key");
+        assertEquals(1, cacheManager.getDeviceObjects(heldId, Geofence.class).size());
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.traccar.session.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.Permission;
+import org.traccar.model.User;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PermissionIndexTest {
+
+    private MemoryStorage storage;
+    private long rootGroupId;
+    private long childGroupId;
+    private long nestedGroupId;
+    private long groupDeviceId;
+    private long directDeviceId;
+
+    private long addGroup(long parentId) throws StorageException {
+        Group group = new Group();
+        group.setGroupId(parentId);
+        group.setId(storage.addObject(group, new Request(new Columns.Exclude("id"))));
+        return group.getId();
+    }
+
+    private long addDevice(long groupId) throws StorageException {
+        Device device = new Device();
+        device.setGroupId(groupId);
+        device.setId(storage.addObject(device, new Request(new Columns.Exclude("id"))));
+        return device.getId();
+    }
+
+    @BeforeEach
+    public void init() throws StorageException {
+        storage = new MemoryStorage();
+        rootGroupId = addGroup(0);
+        childGroupId = addGroup(rootGroupId);
+        nestedGroupId = addGroup(childGroupId);
+        groupDeviceId = addDevice(nestedGroupId);
+        directDeviceId = addDevice(0);
+        storage.addPermission(new Permission(User.class, 1, Group.class, rootGroupId));
+        storage.addPermission(new Permission(User.class, 2, Device.class, directDeviceId));
+    }
+
+    @Test
+    public void testInitialLoad() throws StorageException {
+        var index = new PermissionIndex(storage);
+
+        assertTrue(index.checkPermission(Group.class, 1, nestedGroupId));
+        assertTrue(index.checkPermission(Device.class, 1, groupDeviceId));
+        assertFalse(index.checkPermission(Device.class, 1, directDeviceId));
+        assertEquals(Set.of(directDeviceId), index.getUserDevices(2));
+        assertEquals(Set.of(1L), index.getDeviceUsers(groupDeviceId));
+        assertEquals(Set.of(groupDeviceId), index.getGroupDevices(childGroupId));
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws StorageException {
+        var index = new PermissionIndex(storage);
+
+        index.updatePermission(User.class, 2, Group.class, childGroupId, true);
+        assertEquals(Set.of(1L, 2L), index.getDeviceUsers(groupDeviceId));
+
+        Group group = new Group();
+        group.setId(nestedGroupId);
+        index.updateObject(group);
+        assertFalse(index.checkPermission(Device.class, 1, groupDeviceId));
+        assertEquals(Set.of(directDeviceId), index.getUserDevices(2));
+
+        Device device = new Device();
+        device.setId(directDeviceId);
+        device.setGroupId(rootGroupId);
+        index.updateObject(device);
+        assertTrue(index.checkPermission(Device.class, 1, directDeviceId));
+
+        index.removeObject(Group.class, rootGroupId);
+        assertFalse(index.checkPermission(Device.class, 1, directDeviceId));
+        assertEquals(Set.of(2L), index.getDeviceUsers(directDeviceId));
+
+        index.updatePermission(User.class, 2, Device.class, directDeviceId, false);
+        assertTrue(index.getUserDevices(2).isEmpty());
+    }
+
+}
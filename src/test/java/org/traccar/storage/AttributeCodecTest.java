@@ -0,0 +1,69 @@
+package org.traccar.storage;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.MainModule;
+import org.traccar.model.Position;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttributeCodecTest {
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    {
+        attributes.put(Position.KEY_SATELLITES, 12);
+        attributes.put(Position.KEY_IGNITION, true);
+        attributes.put(Position.KEY_POWER, 12.6);
+        attributes.put(Position.KEY_ODOMETER, 123456789012L);
+        attributes.put(Position.KEY_ALARM, "sos");
+        attributes.put(Position.PREFIX_IO + 239, -5);
+        attributes.put(Position.PREFIX_IO + "007", 1);
+        attributes.put("custom", null);
+        attributes.put("list", List.of(1, 2));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        var objectMapper = MainModule.provideObjectMapper();
+        byte[] data = AttributeCodec.encode(attributes, objectMapper);
+        Map<String, Object> decoded = AttributeCodec.decode(data, objectMapper);
+        assertEquals(attributes, decoded);
+        assertArrayEquals(attributes.keySet().toArray(), decoded.keySet().toArray());
+        assertTrue(data.length < objectMapper.writeValueAsBytes(attributes).length);
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        var objectMapper = MainModule.provideObjectMapper();
+        Map<String, Object> large = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            large.put(Position.PREFIX_IO + i, i % 3 == 0 ? "value" : i);
+        }
+        byte[] data = AttributeCodec.encode(large, objectMapper);
+        assertEquals(2, data[0]);
+        assertEquals(large, AttributeCodec.decode(data, objectMapper));
+    }
+
+    @Test
+    public void testSize() throws Exception {
+        var objectMapper = MainModule.provideObjectMapper();
+        Map<String, Object> teltonika = new LinkedHashMap<>();
+        for (int i = 1; i <= 40; i++) {
+            teltonika.put(Position.PREFIX_IO + (i * 7), i * 1000);
+        }
+        teltonika.put(Position.KEY_POWER, 13.8);
+        teltonika.put(Position.KEY_BATTERY, 4.1);
+        teltonika.put(Position.KEY_TOTAL_DISTANCE, 987654.32);
+
+        byte[] json = objectMapper.writeValueAsBytes(teltonika);
+        byte[] binary = AttributeCodec.encode(teltonika, objectMapper);
+        assertTrue(binary.length * 2 < json.length);
+    }
+
+}
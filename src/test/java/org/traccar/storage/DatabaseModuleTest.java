@@ -0,0 +1,31 @@
+package org.traccar.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class DatabaseModuleTest {
+
+    @Test
+    public void testChangelogHash(@TempDir Path directory) throws Exception {
+        Path master = directory.resolve("changelog-master.xml");
+        Path include = directory.resolve("changelog-1.0.xml");
+        Files.writeString(master, "<databaseChangeLog>\n"
+                + "  <include file=\"changelog-1.0.xml\" relativeToChangelogFile=\"true\" />\n"
+                + "</databaseChangeLog>\n");
+        Files.writeString(include, "<databaseChangeLog />\n");
+
+        String hash = DatabaseModule.computeChangelogHash(master);
+        assertEquals(64, hash.length());
+        assertEquals(hash, DatabaseModule.computeChangelogHash(master));
+
+        Files.writeString(include, "<databaseChangeLog><changeSet id=\"1\" /></databaseChangeLog>\n");
+        assertNotEquals(hash, DatabaseModule.computeChangelogHash(master));
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.traccar.storage;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.traccar.MainModule;
+import org.traccar.config.Config;
+import org.traccar.model.BaseModel;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class DatabaseStorageTest {
+
+    @StorageName("test_items")
+    public static class Item extends BaseModel {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        return item;
+    }
+
+    @Test
+    public void testCachedStatements() throws Exception {
+        var config = mock(Config.class);
+        var objectMapper = MainModule.provideObjectMapper();
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:storage;DB_CLOSE_DELAY=-1");
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "CREATE TABLE test_items (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(128))")
+                .executeUpdate();
+
+        var storage = new DatabaseStorage(config, dataSource, null, objectMapper);
+        long first = storage.addObject(createItem("first"), new Request(new Columns.Exclude("id")));
+        long second = storage.addObject(createItem("second"), new Request(new Columns.Exclude("id")));
+
+        for (long id : List.of(first, second)) {
+            Item item = storage.getObject(Item.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", id)));
+            assertEquals(id, item.getId());
+        }
+
+        Item updated = createItem("updated");
+        updated.setId(second);
+        storage.updateObject(updated, new Request(
+                new Columns.Include("name"), new Condition.Equals("id", updated.getId())));
+        storage.removeObject(Item.class, new Request(new Condition.Equals("id", first)));
+
+        List<Item> items = storage.getObjects(Item.class, new Request(new Columns.All(), new Order("name")));
+        assertEquals(1, items.size());
+        assertEquals("updated", items.get(0).getName());
+    }
+
+    @Test
+    public void testGetObjectsByIds() throws Exception {
+        var config = mock(Config.class);
+        var objectMapper = MainModule.provideObjectMapper();
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:storage_ids;DB_CLOSE_DELAY=-1");
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "CREATE TABLE test_items (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(128))")
+                .executeUpdate();
+
+        var storage = new DatabaseStorage(config, dataSource, null, objectMapper) {
+            @Override
+            protected int getParameterLimit() {
+                return 2;
+            }
+        };
+        long first = storage.addObject(createItem("first"), new Request(new Columns.Exclude("id")));
+        long second = storage.addObject(createItem("second"), new Request(new Columns.Exclude("id")));
+        long third = storage.addObject(createItem("third"), new Request(new Columns.Exclude("id")));
+
+        var items = storage.getObjectsByIds(Item.class, List.of(third, first, third, second, 999L));
+        assertEquals(Set.of(first, second, third), items.stream().map(Item::getId).collect(Collectors.toSet()));
+        assertEquals(3, items.size());
+
+        assertEquals(0, storage.getObjects(Item.class, new Request(
+                new Columns.All(), new Condition.In("id", List.of()))).size());
+    }
+
+    @Test
+    public void testReplica() throws Exception {
+        var config = mock(Config.class);
+        var objectMapper = MainModule.provideObjectMapper();
+        var primaryDataSource = new JdbcDataSource();
+        primaryDataSource.setURL("jdbc:h2:mem:storage_primary;DB_CLOSE_DELAY=-1");
+        var replicaDataSource = new JdbcDataSource();
+        replicaDataSource.setURL("jdbc:h2:mem:storage_replica;DB_CLOSE_DELAY=-1");
+        for (var dataSource : List.of(primaryDataSource, replicaDataSource)) {
+            QueryBuilder.create(config, dataSource, objectMapper,
+                    "CREATE TABLE test_items (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(128))")
+                    .executeUpdate();
+        }
+
+        var storage = new DatabaseStorage(config, primaryDataSource, replicaDataSource, objectMapper);
+        storage.addObject(createItem("primary"), new Request(new Columns.Exclude("id")));
+        storage.replica().addObject(createItem("replica"), new Request(new Columns.Exclude("id")));
+
+        Request request = new Request(new Columns.All());
+        assertEquals("primary", storage.getObject(Item.class, request).getName());
+        assertEquals("replica", storage.replica().getObject(Item.class, request).getName());
+
+        var single = new DatabaseStorage(config, primaryDataSource, null, objectMapper);
+        assertSame(single, single.replica());
+    }
+
+}
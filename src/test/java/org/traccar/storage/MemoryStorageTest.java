@@ -0,0 +1,137 @@
+package org.traccar.storage;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.MainModule;
+import org.traccar.model.Device;
+import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryStorageTest {
+
+    private long addDevice(Storage storage, String uniqueId) throws StorageException {
+        Device device = new Device();
+        device.setUniqueId(uniqueId);
+        return storage.addObject(device, new Request(new Columns.Exclude("id")));
+    }
+
+    private void addPositions(Storage storage, long deviceId, int count) throws StorageException {
+        for (int i = 0; i < count; i++) {
+            Position position = new Position();
+            position.setDeviceId(deviceId);
+            position.setFixTime(new Date(1000L * (count - i)));
+            position.set(Position.KEY_INDEX, i);
+            storage.addObject(position, new Request(new Columns.Exclude("id")));
+        }
+    }
+
+    @Test
+    public void testIndexedQueries() throws StorageException {
+        var storage = new MemoryStorage();
+        long first = addDevice(storage, "123");
+        long second = addDevice(storage, "456");
+        addPositions(storage, first, 10);
+        addPositions(storage, second, 5);
+
+        Device device = storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("uniqueId", "456")));
+        assertEquals(second, device.getId());
+
+        var positions = storage.getObjects(Position.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", first),
+                        new Condition.Between("fixTime", new Date(3000), new Date(6000))),
+                new Order("fixTime")));
+        assertEquals(List.of(3000L, 4000L, 5000L, 6000L), positions.stream()
+                .map(position -> position.getFixTime().getTime()).toList());
+
+        Position latest = storage.getObject(Position.class, new Request(
+                new Columns.All(), new Condition.Equals("deviceId", first), new Order("fixTime", true, 1)));
+        assertEquals(10000L, latest.getFixTime().getTime());
+
+        var lowest = storage.getObjects(Position.class, new Request(
+                new Columns.All(), new Order("fixTime", false, 3)));
+        assertEquals(List.of(1000L, 1000L, 2000L), lowest.stream()
+                .map(position -> position.getFixTime().getTime()).toList());
+
+        storage.removeObject(Position.class, new Request(new Condition.And(
+                new Condition.Equals("deviceId", first),
+                new Condition.Compare("fixTime", "<", new Date(5000)))));
+        assertEquals(6, storage.getObjects(Position.class, new Request(
+                new Columns.All(), new Condition.Equals("deviceId", first))).size());
+    }
+
+    @Test
+    public void testCopiesAndPermissions() throws StorageException {
+        var storage = new MemoryStorage();
+        long deviceId = addDevice(storage, "123");
+        storage.addPermission(new Permission(User.class, 1, Device.class, deviceId));
+
+        Device device = storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Permission(User.class, 1, Device.class)));
+        device.setUniqueId("789");
+        assertNotSame(device, storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("id", deviceId))));
+        assertNull(storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("uniqueId", "789"))));
+
+        storage.updateObject(device, new Request(
+                new Columns.Include("uniqueId"), new Condition.Equals("id", deviceId)));
+        assertEquals(deviceId, storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("uniqueId", "789"))).getId());
+
+        storage.removeObject(Device.class, new Request(new Condition.Equals("id", deviceId)));
+        assertTrue(storage.getPermissions(User.class, Device.class).isEmpty());
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        var objectMapper = MainModule.provideObjectMapper();
+        var storage = new MemoryStorage();
+        long deviceId = addDevice(storage, "123");
+        addPositions(storage, deviceId, 3);
+        storage.addPermission(new Permission(User.class, 1, Device.class, deviceId));
+
+        var outputStream = new ByteArrayOutputStream();
+        storage.writeSnapshot(outputStream, objectMapper);
+        var restored = new MemoryStorage();
+        restored.readSnapshot(new ByteArrayInputStream(outputStream.toByteArray()), objectMapper);
+
+        assertEquals("123", restored.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("id", deviceId))).getUniqueId());
+        var positions = restored.getObjects(Position.class, new Request(
+                new Columns.All(), new Condition.Equals("deviceId", deviceId), new Order("fixTime", true, 0)));
+        assertEquals(3000L, positions.get(0).getFixTime().getTime());
+        assertEquals(2, positions.get(2).getInteger(Position.KEY_INDEX));
+        assertEquals(1, restored.getPermissions(User.class, Device.class).size());
+        assertTrue(addDevice(restored, "456") > deviceId + 3);
+    }
+
+    @Test
+    public void testSnapshotClassRestricted() {
+        var objectMapper = MainModule.provideObjectMapper();
+        var storage = new MemoryStorage();
+        String snapshot = "{\"increment\":1,\"objects\":{\"java.util.ArrayList\":[{}]},\"permissions\":[]}";
+        assertThrows(IOException.class, () -> storage.readSnapshot(
+                new ByteArrayInputStream(snapshot.getBytes(StandardCharsets.UTF_8)), objectMapper));
+    }
+
+}
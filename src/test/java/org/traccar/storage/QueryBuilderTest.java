@@ -0,0 +1,118 @@
+package org.traccar.storage;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.traccar.MainModule;
+import org.traccar.config.Config;
+import org.traccar.model.Position;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QueryBuilderTest {
+
+    @Test
+    public void testObjectRoundTrip() throws Exception {
+        var config = mock(Config.class);
+        var objectMapper = MainModule.provideObjectMapper();
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:querybuilder;DB_CLOSE_DELAY=-1");
+
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "CREATE TABLE test (id BIGINT AUTO_INCREMENT PRIMARY KEY, deviceId BIGINT, valid BOOLEAN, "
+                + "latitude DOUBLE, fixTime TIMESTAMP, protocol VARCHAR(128), attributes VARCHAR(4000))")
+                .executeUpdate();
+
+        Position position = new Position("test");
+        position.setDeviceId(1);
+        position.setValid(true);
+        position.setLatitude(10.5);
+        position.setFixTime(new Date(1000000));
+        position.set(Position.KEY_BATTERY, 12.5);
+        List<String> columns = List.of("deviceId", "valid", "latitude", "fixTime", "protocol", "attributes");
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "INSERT INTO test (deviceId, valid, latitude, fixTime, protocol, attributes) VALUES (?, ?, ?, ?, ?, ?)")
+                .setObject(position, columns)
+                .executeUpdate();
+
+        List<Position> result = QueryBuilder.create(config, dataSource, objectMapper, "SELECT * FROM test")
+                .executeQuery(Position.class);
+        assertEquals(1, result.size());
+        Position stored = result.get(0);
+        assertTrue(stored.getId() > 0);
+        assertEquals(1, stored.getDeviceId());
+        assertTrue(stored.getValid());
+        assertEquals(10.5, stored.getLatitude());
+        assertEquals(1000000, stored.getFixTime().getTime());
+        assertEquals("test", stored.getProtocol());
+        assertEquals(12.5, stored.getDouble(Position.KEY_BATTERY));
+    }
+
+    @Test
+    public void testBinaryAttributes() throws Exception {
+        var config = mock(Config.class);
+        var objectMapper = MainModule.provideObjectMapper();
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:querybuilder_binary;DB_CLOSE_DELAY=-1");
+
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "CREATE TABLE test (id BIGINT AUTO_INCREMENT PRIMARY KEY, attributes VARCHAR(4000), "
+                + "attributesData BLOB)")
+                .executeUpdate();
+        QueryBuilder.create(config, dataSource, objectMapper,
+                "INSERT INTO test (attributes) VALUES ('{\"legacy\":1}')")
+                .executeUpdate();
+
+        Position position = new Position("test");
+        position.set(Position.KEY_BATTERY, 12.5);
+        position.set(Position.PREFIX_IO + 239, 1);
+        QueryBuilder.create(config, dataSource, objectMapper, "INSERT INTO test (attributesData) VALUES (?)")
+                .setObject(position, List.of(ModelAccessor.BINARY_ATTRIBUTES))
+                .executeUpdate();
+
+        List<Position> result = QueryBuilder.create(config, dataSource, objectMapper,
+                "SELECT * FROM test ORDER BY id").executeQuery(Position.class);
+        assertEquals(1, result.get(0).getInteger("legacy"));
+        assertEquals(position.getAttributes(), result.get(1).getAttributes());
+    }
+
+    @Test
+    public void testCursorTransaction() throws Exception {
+        var connection = mock(Connection.class);
+        var statement = mock(PreparedStatement.class);
+        var resultSet = mock(ResultSet.class);
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT * FROM test")).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(mock(ResultSetMetaData.class));
+
+        try (var stream = QueryBuilder.create(
+                mock(Config.class), dataSource, MainModule.provideObjectMapper(), "SELECT * FROM test")
+                .setCursor(100, true)
+                .executeQueryStreamed(Position.class)) {
+            assertEquals(0, stream.count());
+        }
+
+        var order = inOrder(connection, statement, resultSet);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(statement).setFetchSize(100);
+        order.verify(resultSet).close();
+        order.verify(connection).commit();
+        order.verify(connection).setAutoCommit(true);
+        order.verify(connection).close();
+    }
+
+}